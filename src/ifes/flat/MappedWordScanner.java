@@ -0,0 +1,233 @@
+package ifes.flat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Leitor de cadeias a partir de um arquivo mapeado em memória. Cada linha do
+ * arquivo é uma cadeia e os símbolos da cadeia são separados por espaços. Os
+ * símbolos são reconhecidos diretamente nos bytes do `MappedByteBuffer` e
+ * convertidos para o seu número no alfabeto, sem criar nenhuma `String`.
+ *
+ * O arquivo é mapeado em regiões de até `REGION_SIZE` bytes, sempre começando
+ * no início de uma linha, de modo que arquivos maiores que 2 GB também podem
+ * ser lidos. O uso típico é:
+ *
+ * <pre>{@code
+ * while (sc.nextWord()) {
+ *     int x = sc.nextSymbol();
+ *     while (x != MappedWordScanner.END_OF_WORD) {
+ *         // ...
+ *         x = sc.nextSymbol();
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class MappedWordScanner implements Closeable {
+
+    /**
+     * Valor retornado por `nextSymbol` quando o símbolo não pertence ao
+     * alfabeto.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Valor retornado por `nextSymbol` quando a cadeia (linha) terminou.
+     */
+    public static final int END_OF_WORD = -2;
+
+    private static final int REGION_SIZE = 1 << 28;
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    // Tabela de símbolos: os bytes (UTF-8) de todos os símbolos ficam em
+    // `pool`, e `slots` é uma tabela de espalhamento com endereçamento aberto
+    // que guarda `id + 1` de cada símbolo (0 indica posição livre).
+    private final byte[] pool;
+    private final int[] symStart;
+    private final int[] symLen;
+    private final int[] slots;
+    private final int mask;
+
+    private MappedByteBuffer buffer;
+    private long regionStart;
+    private int limit;
+    private int pos;
+    private int lineEnd;
+    private boolean started;
+
+    /**
+     * Abre o arquivo `file` para leitura. O número de cada símbolo é a sua
+     * posição na lista `symbols`.
+     *
+     * @param file arquivo com as cadeias, uma por linha
+     * @param symbols símbolos do alfabeto
+     * @throws IOException
+     */
+    public MappedWordScanner(Path file, List<String> symbols) throws IOException {
+        int n = symbols.size();
+        byte[][] bs = new byte[n][];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            bs[i] = symbols.get(i).getBytes(StandardCharsets.UTF_8);
+            total += bs[i].length;
+        }
+        this.pool = new byte[total];
+        this.symStart = new int[n];
+        this.symLen = new int[n];
+        int cap = 2;
+        while (cap < 2 * n) {
+            cap <<= 1;
+        }
+        this.slots = new int[cap];
+        this.mask = cap - 1;
+        int off = 0;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(bs[i], 0, pool, off, bs[i].length);
+            symStart[i] = off;
+            symLen[i] = bs[i].length;
+            off += bs[i].length;
+            int h = 0;
+            for (byte b : bs[i]) {
+                h = 31 * h + b;
+            }
+            int slot = mix(h) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.regionStart = 0;
+        this.limit = 0;
+        this.pos = 0;
+        this.lineEnd = 0;
+        this.started = false;
+        map(0, 0);
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private void map(long start, int minSize) throws IOException {
+        long size = Math.min(Math.max(REGION_SIZE, minSize), fileSize - start);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        regionStart = start;
+        limit = (int) size;
+        pos = 0;
+    }
+
+    /**
+     * Avança para a próxima cadeia (linha) do arquivo.
+     *
+     * @return `false` se não há mais cadeias no arquivo
+     * @throws IOException
+     */
+    public boolean nextWord() throws IOException {
+        if (started) {
+            pos = lineEnd + 1;
+        }
+        started = true;
+        if (regionStart + pos >= fileSize) {
+            return false;
+        }
+        int nl = findNewline(pos);
+        while (nl < 0 && regionStart + limit < fileSize) {
+            int len = limit - pos;
+            long size = Math.min((long) Integer.MAX_VALUE, 2L * len + 1);
+            map(regionStart + pos, (int) size);
+            nl = findNewline(pos);
+            if (len == limit) {
+                throw new IOException("Linha muito longa no arquivo de cadeias.");
+            }
+        }
+        lineEnd = (nl < 0) ? limit : nl;
+        return true;
+    }
+
+    private int findNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retorna o número do próximo símbolo da cadeia atual, `UNKNOWN` se o
+     * símbolo não pertence ao alfabeto, ou `END_OF_WORD` se a cadeia terminou.
+     *
+     * @return o número do próximo símbolo
+     */
+    public int nextSymbol() {
+        while (pos < lineEnd && isBlank(buffer.get(pos))) {
+            pos += 1;
+        }
+        if (pos >= lineEnd) {
+            return END_OF_WORD;
+        }
+        int start = pos;
+        int h = 0;
+        while (pos < lineEnd) {
+            byte b = buffer.get(pos);
+            if (isBlank(b)) {
+                break;
+            }
+            h = 31 * h + b;
+            pos += 1;
+        }
+        return lookup(start, pos - start, h);
+    }
+
+    /**
+     * Descarta o restante da cadeia atual.
+     */
+    public void skipWord() {
+        pos = lineEnd;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\r' || b == '\t';
+    }
+
+    private int lookup(int start, int len, int h) {
+        int slot = mix(h) & mask;
+        int id = slots[slot];
+        while (id != 0) {
+            int i = id - 1;
+            if (symLen[i] == len && sameBytes(start, symStart[i], len)) {
+                return i;
+            }
+            slot = (slot + 1) & mask;
+            id = slots[slot];
+        }
+        return UNKNOWN;
+    }
+
+    private boolean sameBytes(int start, int off, int len) {
+        for (int j = 0; j < len; j++) {
+            if (buffer.get(start + j) != pool[off + j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,237 @@
+package ifes.flat;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Tabela de internalização de nomes (símbolos do alfabeto ou estados). Cada
+ * valor distinto recebe um número denso, de `0` até `size() - 1`, na ordem em
+ * que foi internalizado pela primeira vez, e todas as ocorrências iguais passam
+ * a compartilhar o mesmo objeto canônico.
+ *
+ * Os números permitem que os autômatos sejam representados por vetores de
+ * inteiros, em vez de mapas indexados pelos próprios objetos. A tabela não é
+ * sincronizada: ela deve ser preenchida por uma única <em>thread</em>, mas
+ * depois disso pode ser consultada por várias.
+ *
+ * Os leitores de autômatos (`FsaReader`) entregam o alfabeto e os estados como
+ * visões das suas tabelas (`asSet`), e `SymbolTable.of` recupera a tabela de
+ * uma visão; assim, as representações densas (`CompiledDfa`, `NfaIndex`)
+ * usam a numeração feita durante a leitura, em vez de numerar os objetos de
+ * novo.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <T> tipo dos valores internalizados
+ */
+public class SymbolTable<T> {
+
+    /**
+     * Valor retornado por `id` quando o valor não está na tabela.
+     */
+    public static final int NONE = -1;
+
+    private final List<T> values;
+    private final Map<T, Integer> ids;
+    // Número de valores visíveis, ou -1 se a tabela pode crescer.
+    private final int limit;
+
+    public SymbolTable() {
+        this.values = new ArrayList<>();
+        this.ids = new HashMap<>();
+        this.limit = -1;
+    }
+
+    /**
+     * Tabela somente para leitura com os `limit` primeiros valores de
+     * `base`, compartilhando os seus dados.
+     */
+    private SymbolTable(SymbolTable<T> base, int limit) {
+        this.values = base.values;
+        this.ids = base.ids;
+        this.limit = limit;
+    }
+
+    /**
+     * Cria uma tabela com os valores de `xs`, internalizados na ordem da
+     * coleção.
+     *
+     * @param xs valores iniciais da tabela
+     */
+    public SymbolTable(Iterable<? extends T> xs) {
+        this();
+        for (T x : xs) {
+            intern(x);
+        }
+    }
+
+    /**
+     * Retorna o número de `x`, inserindo-o na tabela se ele ainda não estiver
+     * presente.
+     *
+     * @param x valor que será internalizado
+     * @return o número de `x`
+     * @throws UnsupportedOperationException se a tabela é somente para
+     * leitura e `x` não está presente
+     */
+    public int intern(T x) {
+        Integer i = ids.get(x);
+        if (limit >= 0 && (i == null || i >= limit)) {
+            throw new UnsupportedOperationException(
+                    "Tabela somente para leitura: " + x);
+        }
+        if (i == null) {
+            i = values.size();
+            values.add(x);
+            ids.put(x, i);
+        }
+        return i;
+    }
+
+    /**
+     * Retorna o objeto canônico igual a `x`, inserindo-o na tabela se ele
+     * ainda não estiver presente.
+     *
+     * @param x valor que será internalizado
+     * @return o objeto da tabela igual a `x`
+     */
+    public T canonical(T x) {
+        return values.get(intern(x));
+    }
+
+    /**
+     * Retorna o número de `x`, ou `NONE` se `x` não está na tabela.
+     *
+     * @param x valor procurado
+     * @return o número de `x`
+     */
+    public int id(T x) {
+        Integer i = ids.get(x);
+        return (i != null && (limit < 0 || i < limit)) ? i : NONE;
+    }
+
+    public T get(int i) {
+        return values.get(Objects.checkIndex(i, size()));
+    }
+
+    public int size() {
+        return (limit >= 0) ? limit : values.size();
+    }
+
+    public boolean contains(T x) {
+        return id(x) != NONE;
+    }
+
+    /**
+     * Retorna os valores da tabela, ordenados pelo seu número.
+     *
+     * @return lista não modificável com os valores da tabela
+     */
+    public List<T> values() {
+        return Collections.unmodifiableList(values.subList(0, size()));
+    }
+
+    /**
+     * Conjunto não modificável com os valores presentes na tabela no momento
+     * da chamada, em ordem de número. Valores internalizados depois não fazem
+     * parte do conjunto.
+     *
+     * @return uma visão dos valores da tabela
+     * @see #of(Set)
+     */
+    public Set<T> asSet() {
+        return new TableSet<>(new SymbolTable<>(this, size()));
+    }
+
+    /**
+     * Retorna uma tabela com os valores de `xs`. Se `xs` foi obtido por
+     * `asSet`, a tabela retornada tem a mesma numeração da tabela original e
+     * nenhum valor é internalizado de novo; caso contrário, os valores são
+     * internalizados na ordem de `xs`.
+     *
+     * @param <T> tipo dos valores
+     * @param xs conjunto de valores
+     * @return uma tabela com os valores de `xs`
+     */
+    public static <T> SymbolTable<T> of(Set<T> xs) {
+        if (xs instanceof TableSet) {
+            return ((TableSet<T>) xs).table;
+        }
+        return new SymbolTable<>(xs);
+    }
+
+    /**
+     * Como `Collections.unmodifiableSet`, mas retorna as visões de tabelas
+     * (`asSet`), que já não são modificáveis, sem envolvê-las, para que
+     * `SymbolTable.of` continue a reconhecê-las.
+     *
+     * @param <T> tipo dos valores
+     * @param xs conjunto de valores
+     * @return uma visão não modificável de `xs`
+     */
+    public static <T> Set<T> unmodifiableSet(Set<T> xs) {
+        return (xs instanceof TableSet) ? xs : Collections.unmodifiableSet(xs);
+    }
+
+    /**
+     * Visão de uma tabela somente para leitura como conjunto.
+     */
+    private static final class TableSet<T> extends AbstractSet<T> {
+
+        final SymbolTable<T> table;
+
+        TableSet(SymbolTable<T> table) {
+            this.table = table;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer i = table.ids.get(o);
+            return i != null && i < table.limit;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return table.values().iterator();
+        }
+
+        @Override
+        public int size() {
+            return table.limit;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolTable{" + "values=" + values() + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 5;
+        hash = 53 * hash + Objects.hashCode(this.values());
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final SymbolTable<?> other = (SymbolTable<?>) obj;
+        return Objects.equals(this.values(), other.values());
+    }
+
+}
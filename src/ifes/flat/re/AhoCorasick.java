@@ -0,0 +1,156 @@
+package ifes.flat.re;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autômato de Aho–Corasick para um conjunto de palavras, numeradas de `0` a
+ * `N - 1`. Os estados são os nós da árvore de prefixos (<em>trie</em>) das
+ * palavras, com a raiz `0`; cada estado tem um elo de falha para o estado do
+ * seu maior sufixo próprio que também é prefixo de alguma palavra. Cada estado
+ * guarda dois conjuntos de palavras: as que terminam exatamente nele
+ * (`exact`), usadas no reconhecimento ancorado, e as que são sufixos do prefixo
+ * correspondente (`out`, a união de `exact` ao longo dos elos de falha),
+ * usadas na busca.
+ *
+ * A busca processa a entrada em uma única passada, com custo amortizado
+ * constante por símbolo mais o custo de informar as palavras encontradas,
+ * qualquer que seja o número de palavras.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class AhoCorasick<A> {
+
+    private final List<Map<A, Integer>> children;
+    private final int[] fail;
+    private final List<BitSet> exact;
+    private final List<BitSet> out;
+
+    /**
+     * Constrói o autômato para as palavras `words`; a palavra `words.get(i)`
+     * tem o número `i`.
+     *
+     * @param words as palavras
+     */
+    public AhoCorasick(List<List<A>> words) {
+        this.children = new ArrayList<>();
+        this.exact = new ArrayList<>();
+        newState();
+        for (int id = 0; id < words.size(); id++) {
+            int s = 0;
+            for (A x : words.get(id)) {
+                Integer t = children.get(s).get(x);
+                if (t == null) {
+                    t = newState();
+                    children.get(s).put(x, t);
+                }
+                s = t;
+            }
+            exact.get(s).set(id);
+        }
+        // Elos de falha e saídas, em largura: o elo de falha de um estado
+        // aponta para um estado mais raso, já calculado.
+        int n = children.size();
+        this.fail = new int[n];
+        this.out = new ArrayList<>(n);
+        for (int s = 0; s < n; s++) {
+            out.add(exact.get(s));
+        }
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (Map.Entry<A, Integer> e : children.get(s).entrySet()) {
+                int t = e.getValue();
+                int f = (s == 0) ? 0 : next(fail[s], e.getKey());
+                fail[t] = f;
+                if (!out.get(f).isEmpty()) {
+                    BitSet o = (BitSet) exact.get(t).clone();
+                    o.or(out.get(f));
+                    out.set(t, o);
+                }
+                queue.add(t);
+            }
+        }
+    }
+
+    private int newState() {
+        children.add(new HashMap<>());
+        exact.add(new BitSet());
+        return children.size() - 1;
+    }
+
+    /**
+     * Transição do estado `s` pelo símbolo `x`, seguindo os elos de falha
+     * enquanto não há uma transição direta.
+     */
+    private int next(int s, A x) {
+        while (true) {
+            Integer t = children.get(s).get(x);
+            if (t != null) {
+                return t;
+            } else if (s == 0) {
+                return 0;
+            }
+            s = fail[s];
+        }
+    }
+
+    /**
+     * Palavras iguais à cadeia `w` inteira.
+     *
+     * @param w cadeia de entrada
+     * @return os números das palavras iguais a `w`
+     */
+    public BitSet matches(List<A> w) {
+        int s = 0;
+        for (A x : w) {
+            Integer t = children.get(s).get(x);
+            if (t == null) {
+                return new BitSet();
+            }
+            s = t;
+        }
+        return (BitSet) exact.get(s).clone();
+    }
+
+    /**
+     * Palavras que ocorrem em algum trecho da cadeia `w`.
+     *
+     * @param w cadeia de entrada
+     * @return os números das palavras que ocorrem em `w`
+     */
+    public BitSet find(List<A> w) {
+        BitSet found = (BitSet) out.get(0).clone();
+        int s = 0;
+        for (A x : w) {
+            s = next(s, x);
+            BitSet o = out.get(s);
+            if (!o.isEmpty()) {
+                found.or(o);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Número de estados (nós da árvore de prefixos).
+     *
+     * @return o número de estados
+     */
+    public int numStates() {
+        return children.size();
+    }
+
+    @Override
+    public String toString() {
+        return "AhoCorasick{" + "numStates=" + children.size() + '}';
+    }
+
+}
@@ -0,0 +1,229 @@
+package ifes.flat.re;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe de caracteres: reconhece exatamente um caractere pertencente a um
+ * conjunto, representado como uma lista ordenada de intervalos disjuntos e
+ * não adjacentes `[lo[i], hi[i]]`. Assim, `[a-z0-9]` é um único nó com dois
+ * intervalos, e não uma união de 36 literais, e o teste de pertinência é uma
+ * busca binária sobre os intervalos.
+ *
+ * A `PikeVm`, o `CharMatcher` e o `RegexFinder` usam a classe diretamente,
+ * como uma única instrução. As construções que exigem um alfabeto finito
+ * explícito (Thompson e Glushkov) rotulam as transições da classe com um
+ * símbolo por bloco da `CharPartition` da ER, e não com um símbolo por
+ * caractere.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class CharClass extends Regex<Character> {
+
+    private static final CharClass ANY = new CharClass(
+            new char[]{Character.MIN_VALUE}, new char[]{Character.MAX_VALUE});
+
+    private final char[] lo;
+    private final char[] hi;
+    private final int hash;
+
+    private CharClass(char[] lo, char[] hi) {
+        this.lo = lo;
+        this.hi = hi;
+        this.hash = 31 * Arrays.hashCode(lo) + Arrays.hashCode(hi);
+    }
+
+    /**
+     * Cria a classe com os intervalos `[ranges[0], ranges[1]]`,
+     * `[ranges[2], ranges[3]]`, etc. Os intervalos podem estar em qualquer
+     * ordem e se sobrepor; eles são ordenados e fundidos.
+     *
+     * @param ranges extremos dos intervalos, dois a dois
+     * @return a classe de caracteres
+     * @throws IllegalArgumentException se o número de extremos é ímpar ou se
+     * algum intervalo está invertido
+     */
+    public static CharClass of(char... ranges) {
+        if (ranges.length % 2 != 0) {
+            throw new IllegalArgumentException("Número ímpar de extremos de intervalos.");
+        }
+        int n = ranges.length / 2;
+        int[][] iv = new int[n][];
+        for (int i = 0; i < n; i++) {
+            char a = ranges[2 * i];
+            char b = ranges[2 * i + 1];
+            if (a > b) {
+                throw new IllegalArgumentException(String.format(
+                        "Intervalo inválido: %c-%c.", a, b));
+            }
+            iv[i] = new int[]{a, b};
+        }
+        Arrays.sort(iv, (p, q) -> Integer.compare(p[0], q[0]));
+        List<int[]> merged = new ArrayList<>();
+        for (int[] r : iv) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && r[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], r[1]);
+            } else {
+                merged.add(new int[]{r[0], r[1]});
+            }
+        }
+        char[] lo = new char[merged.size()];
+        char[] hi = new char[merged.size()];
+        for (int i = 0; i < lo.length; i++) {
+            lo[i] = (char) merged.get(i)[0];
+            hi[i] = (char) merged.get(i)[1];
+        }
+        return new CharClass(lo, hi);
+    }
+
+    /**
+     * Classe que contém todos os caracteres (o `.` dos padrões).
+     *
+     * @return a classe de todos os caracteres
+     */
+    public static CharClass any() {
+        return ANY;
+    }
+
+    /**
+     * Complemento desta classe em relação a todos os caracteres.
+     *
+     * @return a classe dos caracteres que não pertencem a esta
+     */
+    public CharClass negate() {
+        List<Character> rs = new ArrayList<>();
+        int next = Character.MIN_VALUE;
+        for (int i = 0; i < lo.length; i++) {
+            if (lo[i] > next) {
+                rs.add((char) next);
+                rs.add((char) (lo[i] - 1));
+            }
+            next = hi[i] + 1;
+        }
+        if (next <= Character.MAX_VALUE) {
+            rs.add((char) next);
+            rs.add(Character.MAX_VALUE);
+        }
+        char[] ranges = new char[rs.size()];
+        for (int i = 0; i < ranges.length; i++) {
+            ranges[i] = rs.get(i);
+        }
+        return of(ranges);
+    }
+
+    /**
+     * Indica se o caractere `c` pertence à classe.
+     *
+     * @param c um caractere
+     * @return `true` se `c` pertence à classe
+     */
+    public boolean contains(char c) {
+        int a = 0;
+        int b = lo.length - 1;
+        while (a <= b) {
+            int m = (a + b) >>> 1;
+            if (c < lo[m]) {
+                b = m - 1;
+            } else if (c > hi[m]) {
+                a = m + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int numIntervals() {
+        return lo.length;
+    }
+
+    public char low(int i) {
+        return lo[i];
+    }
+
+    public char high(int i) {
+        return hi[i];
+    }
+
+    /**
+     * Número de caracteres da classe.
+     *
+     * @return o número de caracteres
+     */
+    public int size() {
+        int n = 0;
+        for (int i = 0; i < lo.length; i++) {
+            n += hi[i] - lo[i] + 1;
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public Regex<Character> derivative(Character x, RegexFactory<Character> factory) {
+        return contains(x) ? factory.empty() : factory.nothing();
+    }
+
+    @Override
+    public String toString() {
+        if (this.equals(ANY)) {
+            return ".";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < lo.length; i++) {
+            appendChar(sb, lo[i]);
+            if (hi[i] > lo[i]) {
+                sb.append('-');
+                appendChar(sb, hi[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static void appendChar(StringBuilder sb, char c) {
+        if (c < ' ' || c > '~') {
+            sb.append(String.format("\\u%04x", (int) c));
+        } else {
+            if ("\\]-^".indexOf(c) >= 0) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final CharClass other = (CharClass) obj;
+        if (this.hash != other.hash) {
+            return false;
+        }
+        if (!Arrays.equals(this.lo, other.lo)) {
+            return false;
+        }
+        if (!Arrays.equals(this.hi, other.hi)) {
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,426 @@
+package ifes.flat.re;
+
+import java.util.Objects;
+
+/**
+ * Versão do programa da `PikeVm` especializada para ERs sobre caracteres,
+ * que opera diretamente sobre `CharSequence` (como `String` e
+ * `StringBuilder`). Os símbolos das instruções `CHAR` são guardados como
+ * `char`, as classes das instruções `CLASS` são consultadas diretamente pelos
+ * seus intervalos, as instruções `COUNT` usam um `CountingSet` por execução,
+ * e a entrada é lida com `charAt`, sem converter a cadeia
+ * para `List<Character>` e sem criar nenhum objeto por caractere processado.
+ *
+ * Se a ER tem um literal obrigatório (veja `LiteralPrefilter`), `find` salta
+ * as regiões da entrada em que nenhum reconhecimento pode começar, e
+ * `matches` rejeita de imediato as cadeias que não contêm o literal.
+ *
+ * Os objetos são imutáveis depois de construídos, e podem ser compartilhados
+ * entre várias <em>threads</em>; cada chamada aloca apenas as listas de
+ * <em>threads</em>, proporcionais ao tamanho do programa.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class CharMatcher {
+
+    final int[] op;
+    final int[] x;
+    final int[] y;
+    final char[] symbol;
+    final CharClass[] classes;
+    private final PikeVm<Character> program;
+    private final LiteralPrefilter prefilter;
+
+    /**
+     * Converte o programa `program` para a representação sobre `char`, sem
+     * pré-filtro.
+     *
+     * @param program programa de uma ER sobre caracteres
+     */
+    public CharMatcher(PikeVm<Character> program) {
+        this(program, null);
+    }
+
+    /**
+     * Converte o programa `program` para a representação sobre `char`.
+     *
+     * @param program programa de uma ER sobre caracteres
+     * @param prefilter pré-filtro da mesma ER, ou `null`
+     */
+    public CharMatcher(PikeVm<Character> program, LiteralPrefilter prefilter) {
+        this.program = program;
+        this.prefilter = prefilter;
+        int m = program.size();
+        this.op = new int[m];
+        this.x = new int[m];
+        this.y = new int[m];
+        this.symbol = new char[m];
+        this.classes = new CharClass[m];
+        for (int pc = 0; pc < m; pc++) {
+            op[pc] = program.op(pc);
+            x[pc] = program.x(pc);
+            y[pc] = program.y(pc);
+            Object s = program.symbol(pc);
+            if (op[pc] == PikeVm.COUNT) {
+                // O corpo da repetição: um literal ou uma classe.
+                s = (s instanceof Literal) ? ((Literal<?>) s).symbol : s;
+            }
+            if (s instanceof Character) {
+                symbol[pc] = (Character) s;
+            } else if (s instanceof CharClass) {
+                classes[pc] = (CharClass) s;
+            }
+        }
+    }
+
+    public CharMatcher(Regex<Character> re) {
+        this(PikeVm.compile(re), LiteralPrefilter.of(re));
+    }
+
+    public LiteralPrefilter getPrefilter() {
+        return prefilter;
+    }
+
+    /**
+     * Um reconhecimento: o trecho `[start, end)` da entrada.
+     */
+    public static final class Match {
+
+        private final int start;
+        private final int end;
+
+        public Match(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public int start() {
+            return start;
+        }
+
+        public int end() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" + "start=" + start + ", end=" + end + '}';
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 3;
+            hash = 29 * hash + this.start;
+            hash = 29 * hash + this.end;
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null) {
+                return false;
+            }
+            if (getClass() != obj.getClass()) {
+                return false;
+            }
+            final Match other = (Match) obj;
+            if (this.start != other.start) {
+                return false;
+            }
+            if (this.end != other.end) {
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Listas de <em>threads</em> de uma execução: conjuntos esparsos de
+     * endereços, com a posição de início de cada <em>thread</em>. As posições
+     * são `long` porque as mesmas listas são usadas pelo `RegexFinder`, que
+     * conta as posições desde o início de um fluxo.
+     */
+    final class Threads {
+
+        int[] cdense = new int[op.length];
+        int[] csparse = new int[op.length];
+        long[] cstart = new long[op.length];
+        int csize = 0;
+        int[] ndense = new int[op.length];
+        int[] nsparse = new int[op.length];
+        long[] nstart = new long[op.length];
+        int nsize = 0;
+        final int[] stack = new int[2 * op.length + 1];
+        final CountingSet[] counters = newCounters();
+        // Posição da entrada correspondente à lista seguinte.
+        long time;
+
+        Threads(long time) {
+            this.time = time;
+        }
+
+        /**
+         * Acrescenta à lista seguinte a <em>thread</em> em `pc`, iniciada em
+         * `start`, e as que dela decorrem. Uma instrução já presente na lista
+         * é mantida com a menor das posições de início. Uma <em>thread</em>
+         * que chega a uma instrução `COUNT` é registrada no seu contador.
+         */
+        void add(int pc, long start) {
+            int top = 0;
+            stack[top++] = pc;
+            while (top > 0) {
+                int i = stack[--top];
+                if (op[i] == PikeVm.COUNT) {
+                    if (counters[i].enter(time, start)) {
+                        insert(i, start);
+                        if (x[i] == 0) {
+                            stack[top++] = i + 1;
+                        }
+                    }
+                    continue;
+                }
+                if (!insert(i, start)) {
+                    continue;
+                }
+                if (op[i] == PikeVm.JMP) {
+                    stack[top++] = x[i];
+                } else if (op[i] == PikeVm.SPLIT) {
+                    stack[top++] = y[i];
+                    stack[top++] = x[i];
+                }
+            }
+        }
+
+        /**
+         * Insere `pc` na lista seguinte, ou diminui a sua posição de início.
+         * Retorna `false` se `pc` já estava na lista com início menor ou
+         * igual a `start`.
+         */
+        boolean insert(int pc, long start) {
+            int k = nsparse[pc];
+            if (k < nsize && ndense[k] == pc) {
+                if (nstart[k] <= start) {
+                    return false;
+                }
+                nstart[k] = start;
+                return true;
+            }
+            nsparse[pc] = nsize;
+            ndense[nsize] = pc;
+            nstart[nsize] = start;
+            nsize += 1;
+            return true;
+        }
+
+        void swap() {
+            int[] t = cdense;
+            cdense = ndense;
+            ndense = t;
+            t = csparse;
+            csparse = nsparse;
+            nsparse = t;
+            long[] ts = cstart;
+            cstart = nstart;
+            nstart = ts;
+            csize = nsize;
+            nsize = 0;
+        }
+
+        /**
+         * Consome o caractere `c`, mantendo apenas as <em>threads</em>
+         * iniciadas até `maxStart`.
+         */
+        void step(char c, long maxStart) {
+            nsize = 0;
+            time += 1;
+            if (counters != null) {
+                // Os contadores avançam antes que novas threads cheguem a eles.
+                for (int k = 0; k < csize; k++) {
+                    int pc = cdense[k];
+                    if (op[pc] == PikeVm.COUNT) {
+                        counters[pc].step(inSet(pc, c));
+                    }
+                }
+            }
+            for (int k = 0; k < csize; k++) {
+                int pc = cdense[k];
+                if (op[pc] == PikeVm.COUNT) {
+                    CountingSet cs = counters[pc];
+                    if (!cs.isEmpty()) {
+                        insert(pc, cstart[k]);
+                        if (cs.canExit() && cs.exitStart() <= maxStart) {
+                            add(pc + 1, cs.exitStart());
+                        }
+                    }
+                } else if (cstart[k] <= maxStart && accepts(pc, c)) {
+                    add(pc + 1, cstart[k]);
+                }
+            }
+        }
+
+        /**
+         * Posição de início da <em>thread</em> que chegou ao fim do programa,
+         * ou `-1` se nenhuma chegou.
+         */
+        long matchStart() {
+            for (int k = 0; k < csize; k++) {
+                if (op[cdense[k]] == PikeVm.MATCH) {
+                    return cstart[k];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Descarta dos contadores as entradas com início depois de
+         * `maxStart`, que não podem mais contribuir para o reconhecimento.
+         */
+        void retainStartsUpTo(long maxStart) {
+            if (counters != null) {
+                for (CountingSet cs : counters) {
+                    if (cs != null) {
+                        cs.retainStartsUpTo(maxStart);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Descarta todas as <em>threads</em> e reinicia a execução com uma
+         * única <em>thread</em> iniciada na posição `next`.
+         */
+        void restart(long next) {
+            if (counters != null) {
+                for (CountingSet cs : counters) {
+                    if (cs != null) {
+                        cs.clear();
+                    }
+                }
+            }
+            nsize = 0;
+            time = next;
+            add(0, next);
+            swap();
+        }
+    }
+
+    /**
+     * Indica se a cadeia `s` inteira é reconhecida pela ER.
+     *
+     * @param s cadeia de entrada
+     * @return `true` se a ER aceita `s`
+     */
+    public boolean matches(CharSequence s) {
+        if (prefilter != null && !prefilter.mayMatch(s)) {
+            return false;
+        }
+        Threads th = new Threads(0);
+        th.restart(0);
+        int n = s.length();
+        for (int i = 0; i < n && th.csize > 0; i++) {
+            th.step(s.charAt(i), 0);
+            th.swap();
+        }
+        return th.matchStart() >= 0;
+    }
+
+    /**
+     * Busca o primeiro reconhecimento em `s` a partir da posição `from`. É
+     * escolhido o reconhecimento que começa mais à esquerda e, entre os que
+     * começam nessa posição, o mais longo. O reconhecimento pode ser vazio.
+     *
+     * @param s cadeia de entrada
+     * @param from posição a partir da qual a busca é feita
+     * @return o reconhecimento encontrado, ou `null` se não há nenhum
+     * @throws IndexOutOfBoundsException se `from` está fora da cadeia
+     */
+    public Match find(CharSequence s, int from) {
+        int n = s.length();
+        Objects.checkFromToIndex(from, n, n);
+        // Próxima ocorrência do literal obrigatório, se já calculada.
+        int occ = -1;
+        if (prefilter != null) {
+            occ = prefilter.indexOf(s, from);
+            if (occ < 0) {
+                return null;
+            }
+            from = (int) Math.max(from, prefilter.startBound(occ));
+        }
+        Threads th = new Threads(from);
+        int bestStart = -1;
+        int bestEnd = -1;
+        th.restart(from);
+        for (int i = from;; i++) {
+            int ms = (int) th.matchStart();
+            if (ms >= 0 && (bestStart < 0 || ms <= bestStart)) {
+                bestStart = ms;
+                bestEnd = i;
+            }
+            if (i == n || (th.csize == 0 && bestStart >= 0)) {
+                break;
+            }
+            // Depois de um reconhecimento, só interessam as threads que
+            // começaram até ele, e nenhuma nova thread é iniciada.
+            th.step(s.charAt(i), bestStart >= 0 ? bestStart : Long.MAX_VALUE);
+            if (bestStart < 0) {
+                if (th.nsize == 0 && prefilter != null) {
+                    // Nenhuma thread ativa: o próximo reconhecimento só pode
+                    // começar perto da próxima ocorrência do literal.
+                    if (occ < i + 1) {
+                        occ = prefilter.indexOf(s, i + 1);
+                        if (occ < 0) {
+                            return null;
+                        }
+                    }
+                    int next = (int) Math.max(i + 1, prefilter.startBound(occ));
+                    th.time = next;
+                    i = next - 1;
+                }
+                th.add(0, i + 1);
+            }
+            th.swap();
+        }
+        return (bestStart >= 0) ? new Match(bestStart, bestEnd) : null;
+    }
+
+    /**
+     * Indica se a instrução `pc` consome o caractere `c`.
+     */
+    boolean accepts(int pc, char c) {
+        return (op[pc] == PikeVm.CHAR || op[pc] == PikeVm.CLASS) && inSet(pc, c);
+    }
+
+    /**
+     * Indica se `c` é o caractere, ou pertence à classe, da instrução `pc`
+     * (`CHAR`, `CLASS` ou o corpo de um `COUNT`).
+     */
+    boolean inSet(int pc, char c) {
+        return (classes[pc] != null) ? classes[pc].contains(c) : symbol[pc] == c;
+    }
+
+    /**
+     * Cria os contadores das instruções `COUNT` para uma execução, ou retorna
+     * `null` se o programa não tem nenhuma.
+     */
+    CountingSet[] newCounters() {
+        return program.newCounters();
+    }
+
+    /**
+     * Tamanho do programa (número de instruções).
+     *
+     * @return o número de instruções
+     */
+    public int size() {
+        return op.length;
+    }
+
+    @Override
+    public String toString() {
+        return "CharMatcher{" + "size=" + op.length + '}';
+    }
+
+}
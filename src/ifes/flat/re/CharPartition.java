@@ -0,0 +1,182 @@
+package ifes.flat.re;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Partição dos caracteres em intervalos disjuntos (<em>blocos</em>) que
+ * cobrem de `Character.MIN_VALUE` a `Character.MAX_VALUE`, calculada a partir
+ * dos limites das classes (`CharClass`) e dos literais (`Literal`) de uma ER.
+ * Cada classe da ER contém cada bloco inteiro ou não contém nenhum caractere
+ * dele, e cada literal é sozinho um bloco; assim, todos os caracteres de um
+ * bloco são indistinguíveis para a ER, como os símbolos de uma mesma classe de
+ * uma `AlphabetPartition`.
+ *
+ * As construções de Thompson e de Glushkov rotulam as transições de uma
+ * classe com um símbolo por bloco, o <em>representante</em> do bloco (o seu
+ * menor caractere), em vez de um símbolo por caractere; o número de
+ * transições é limitado pelo número de limites na ER, e não pelo tamanho das
+ * classes. O representante do bloco de um literal é o próprio literal. Para
+ * executar um desses autômatos sobre uma cadeia qualquer, cada caractere deve
+ * antes ser trocado pelo representante do seu bloco (`translate`).
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public final class CharPartition {
+
+    // Início de cada bloco, em ordem crescente; lo[0] é Character.MIN_VALUE.
+    private final char[] lo;
+
+    private CharPartition(char[] lo) {
+        this.lo = lo;
+    }
+
+    /**
+     * Calcula a partição dos caracteres definida pelas classes e pelos
+     * literais (do tipo `Character`) da ER `re`. A árvore é percorrida
+     * iterativamente.
+     *
+     * @param re a expressão regular
+     * @return a partição dos caracteres para `re`
+     */
+    public static CharPartition of(Regex<?> re) {
+        // Posições em que começa um novo bloco.
+        BitSet cuts = new BitSet(Character.MAX_VALUE + 2);
+        cuts.set(Character.MIN_VALUE);
+        Deque<Regex<?>> stack = new ArrayDeque<>();
+        stack.push(re);
+        while (!stack.isEmpty()) {
+            Regex<?> r = stack.pop();
+            if (r instanceof CharClass) {
+                CharClass cc = (CharClass) r;
+                for (int i = 0; i < cc.numIntervals(); i++) {
+                    cuts.set(cc.low(i));
+                    cuts.set(cc.high(i) + 1);
+                }
+            } else if (r instanceof Literal) {
+                Object x = ((Literal<?>) r).symbol;
+                if (x instanceof Character) {
+                    cuts.set((Character) x);
+                    cuts.set((Character) x + 1);
+                }
+            } else if (r instanceof Concat) {
+                stack.push(((Concat<?>) r).re2);
+                stack.push(((Concat<?>) r).re1);
+            } else if (r instanceof Union) {
+                stack.push(((Union<?>) r).re2);
+                stack.push(((Union<?>) r).re1);
+            } else if (r instanceof Star) {
+                stack.push(((Star<?>) r).re);
+            } else if (r instanceof Repeat) {
+                stack.push(((Repeat<?>) r).re);
+            }
+        }
+        cuts.clear(Character.MAX_VALUE + 1);
+        char[] lo = new char[cuts.cardinality()];
+        int k = 0;
+        for (int c = cuts.nextSetBit(0); c >= 0; c = cuts.nextSetBit(c + 1)) {
+            lo[k++] = (char) c;
+        }
+        return new CharPartition(lo);
+    }
+
+    /**
+     * Número de blocos da partição.
+     *
+     * @return o número de blocos
+     */
+    public int numBlocks() {
+        return lo.length;
+    }
+
+    /**
+     * Menor caractere do bloco `b`, que é o seu representante.
+     *
+     * @param b número do bloco, de `0` a `numBlocks() - 1`
+     * @return o menor caractere do bloco
+     */
+    public char low(int b) {
+        return lo[b];
+    }
+
+    /**
+     * Maior caractere do bloco `b`.
+     *
+     * @param b número do bloco, de `0` a `numBlocks() - 1`
+     * @return o maior caractere do bloco
+     */
+    public char high(int b) {
+        return (b + 1 < lo.length) ? (char) (lo[b + 1] - 1) : Character.MAX_VALUE;
+    }
+
+    /**
+     * Número do bloco que contém o caractere `c` (busca binária).
+     *
+     * @param c um caractere
+     * @return o número do bloco de `c`
+     */
+    public int blockOf(char c) {
+        int i = 0;
+        int j = lo.length - 1;
+        while (i < j) {
+            int m = (i + j + 1) >>> 1;
+            if (lo[m] <= c) {
+                i = m;
+            } else {
+                j = m - 1;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Representante do bloco que contém o caractere `c`.
+     *
+     * @param c um caractere
+     * @return o menor caractere do bloco de `c`
+     */
+    public char representative(char c) {
+        return lo[blockOf(c)];
+    }
+
+    /**
+     * Representantes dos blocos contidos na classe `cc`, que deve ser uma
+     * classe da ER a partir da qual a partição foi calculada.
+     *
+     * @param cc uma classe de caracteres
+     * @return os representantes dos blocos de `cc`, em ordem crescente
+     */
+    public List<Character> representatives(CharClass cc) {
+        List<Character> res = new ArrayList<>();
+        for (int i = 0; i < cc.numIntervals(); i++) {
+            for (int b = blockOf(cc.low(i)); b < lo.length && lo[b] <= cc.high(i); b++) {
+                res.add(lo[b]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Troca cada caractere da cadeia `w` pelo representante do seu bloco,
+     * para executar sobre `w` os autômatos de Thompson e de Glushkov.
+     *
+     * @param w cadeia de entrada
+     * @return a cadeia dos representantes dos caracteres de `w`
+     */
+    public List<Character> translate(List<Character> w) {
+        List<Character> res = new ArrayList<>(w.size());
+        for (Character c : w) {
+            res.add(representative(c));
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "CharPartition{" + "numBlocks=" + lo.length + '}';
+    }
+
+}
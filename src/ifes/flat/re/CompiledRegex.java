@@ -0,0 +1,117 @@
+package ifes.flat.re;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Padrão compilado: o texto do padrão, a ER obtida pelo `RegexParser`, o
+ * programa da `PikeVm` correspondente e a sua versão sobre `char`
+ * (`CharMatcher`, com o `LiteralPrefilter` da ER), usada por
+ * `matches(CharSequence)` e `find`. O programa é também o usado pelos métodos
+ * `accepts` e `endPositions` da ER, que assim é compilada uma única vez. Os
+ * objetos são imutáveis e podem ser compartilhados entre várias
+ * <em>threads</em>; é o que o `RegexCache` guarda.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class CompiledRegex {
+
+    private final String pattern;
+    private final Regex<Character> regex;
+    private final PikeVm<Character> program;
+    private final CharMatcher charMatcher;
+
+    /**
+     * Compila o padrão `pattern`.
+     *
+     * @param pattern texto do padrão, na sintaxe do `RegexParser`
+     * @throws IllegalArgumentException se o padrão é vazio ou inválido
+     */
+    public CompiledRegex(String pattern) {
+        this.pattern = pattern;
+        this.regex = new RegexParser(pattern).parseAll();
+        this.program = PikeVm.compile(regex);
+        // A ER retornada por `getRegex` usa o mesmo programa.
+        regex.setProgram(program);
+        this.charMatcher = new CharMatcher(program, LiteralPrefilter.of(regex));
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public Regex<Character> getRegex() {
+        return regex;
+    }
+
+    public PikeVm<Character> getProgram() {
+        return program;
+    }
+
+    public CharMatcher getCharMatcher() {
+        return charMatcher;
+    }
+
+    public BitSet endPositions(List<Character> w, int start) {
+        return program.endPositions(w, start);
+    }
+
+    public boolean accepts(List<Character> w) {
+        return program.accepts(w);
+    }
+
+    /**
+     * Indica se a cadeia `s` inteira é reconhecida pelo padrão. A cadeia é
+     * processada diretamente, sem conversão para `List<Character>`.
+     *
+     * @param s cadeia de entrada
+     * @return `true` se o padrão aceita `s`
+     */
+    public boolean matches(CharSequence s) {
+        return charMatcher.matches(s);
+    }
+
+    /**
+     * Busca o primeiro reconhecimento (mais à esquerda e mais longo) do
+     * padrão em `s`, a partir da posição `from`.
+     *
+     * @param s cadeia de entrada
+     * @param from posição a partir da qual a busca é feita
+     * @return o reconhecimento encontrado, ou `null` se não há nenhum
+     */
+    public CharMatcher.Match find(CharSequence s, int from) {
+        return charMatcher.find(s, from);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledRegex{" + "pattern=" + pattern + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + Objects.hashCode(this.pattern);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final CompiledRegex other = (CompiledRegex) obj;
+        if (!Objects.equals(this.pattern, other.pattern)) {
+            return false;
+        }
+        return true;
+    }
+
+}
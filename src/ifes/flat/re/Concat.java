@@ -1,12 +1,8 @@
 package ifes.flat.re;
 
-import ifes.data.Pair;
-import static ifes.data.Pair.p;
-import static ifes.Utils.append;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  *
@@ -17,20 +13,52 @@ public class Concat<A> extends Regex<A> {
 
     public final Regex<A> re1;
     public final Regex<A> re2;
+    private final int hash;
+    private final boolean nullable;
 
     public Concat(Regex<A> re1, Regex<A> re2) {
         this.re1 = re1;
         this.re2 = re2;
+        int h = 7;
+        h = 11 * h + Objects.hashCode(re1);
+        h = 11 * h + Objects.hashCode(re2);
+        this.hash = h;
+        this.nullable = re1.isNullable() && re2.isNullable();
     }
 
     @Override
-    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
-        return re1.matches(w).stream()
-                .flatMap(m1 -> {
-                    return re2.matches(m1._2).stream()
-                            .map(m2 -> p(append(m1._1, m2._1), m2._2));
-                })
-                .collect(Collectors.toSet());
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * A derivada de `re1 re2` é `d(re1) re2`, unida a `d(re2)` caso `re1`
+     * aceite a cadeia vazia. A cadeia de concatenações é percorrida
+     * iterativamente pela direita (concatenações associadas à esquerda são
+     * antes reassociadas), acumulando as alternativas enquanto os fatores
+     * aceitam a cadeia vazia, de modo que cadeias longas não esgotam a pilha
+     * de execução.
+     */
+    @Override
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        List<Regex<A>> alts = new ArrayList<>();
+        Regex<A> r = this;
+        while (r instanceof Concat) {
+            Concat<A> c = (Concat<A>) r;
+            if (c.re1 instanceof Concat) {
+                // (a b) c = a (b c)
+                Concat<A> l = (Concat<A>) c.re1;
+                r = new Concat<>(l.re1, new Concat<>(l.re2, c.re2));
+                continue;
+            }
+            alts.add(factory.concat(c.re1.derivative(x, factory), c.re2));
+            if (!c.re1.isNullable()) {
+                return (alts.size() == 1) ? alts.get(0) : factory.union(alts);
+            }
+            r = c.re2;
+        }
+        alts.add(r.derivative(x, factory));
+        return factory.union(alts);
     }
 
     @Override
@@ -40,9 +68,6 @@ public class Concat<A> extends Regex<A> {
 
     @Override
         public int hashCode() {
-        int hash = 7;
-        hash = 11 * hash + Objects.hashCode(this.re1);
-        hash = 11 * hash + Objects.hashCode(this.re2);
         return hash;
     }
 
@@ -58,6 +83,9 @@ public class Concat<A> extends Regex<A> {
             return false;
         }
         final Concat<?> other = (Concat<?>) obj;
+        if (this.hash != other.hash) {
+            return false;
+        }
         if (!Objects.equals(this.re1, other.re1)) {
             return false;
         }
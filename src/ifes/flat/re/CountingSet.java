@@ -0,0 +1,227 @@
+package ifes.flat.re;
+
+/**
+ * Estado de uma instrução `COUNT` da `PikeVm` durante uma execução: o conjunto
+ * dos valores do contador da repetição `s{min,max}`, onde `s` reconhece um
+ * único símbolo.
+ *
+ * Cada <em>thread</em> que chega à instrução é uma <em>entrada</em>, com o
+ * instante (a posição na entrada) em que chegou e a posição de início do
+ * reconhecimento a que pertence. Como o corpo da repetição consome exatamente
+ * um símbolo, todos os contadores avançam juntos: o valor do contador de uma
+ * entrada é a sua idade, `now - time`, e um símbolo que não pertence ao corpo
+ * descarta todas as entradas. Assim, incrementar todos os contadores custa
+ * O(1), e a instrução ocupa uma única posição no programa e nas listas de
+ * <em>threads</em>, quaisquer que sejam os limites.
+ *
+ * As entradas com idade menor que `min` ficam em uma fila; ao atingirem a
+ * idade `min` passam para uma fila monotônica (de posições de início
+ * crescentes), da qual saem ao ultrapassar a idade `max`. A frente dessa fila
+ * é a menor posição de início entre as entradas que podem sair da repetição,
+ * que é a posição de início da <em>thread</em> que continua depois da
+ * instrução. Cada entrada é inserida e removida no máximo uma vez, de modo
+ * que o custo por símbolo é constante amortizado.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+final class CountingSet {
+
+    /**
+     * Fila de pares (instante, início) sobre um vetor circular.
+     */
+    private static final class Queue {
+
+        long[] time = new long[4];
+        long[] start = new long[4];
+        int head = 0;
+        int size = 0;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        private int index(int k) {
+            return (head + k) & (time.length - 1);
+        }
+
+        void addLast(long t, long s) {
+            if (size == time.length) {
+                long[] nt = new long[2 * size];
+                long[] ns = new long[2 * size];
+                for (int k = 0; k < size; k++) {
+                    nt[k] = time[index(k)];
+                    ns[k] = start[index(k)];
+                }
+                time = nt;
+                start = ns;
+                head = 0;
+            }
+            int i = index(size);
+            time[i] = t;
+            start[i] = s;
+            size += 1;
+        }
+
+        long firstTime() {
+            return time[head];
+        }
+
+        long firstStart() {
+            return start[head];
+        }
+
+        long lastTime() {
+            return time[index(size - 1)];
+        }
+
+        long lastStart() {
+            return start[index(size - 1)];
+        }
+
+        void setLastStart(long s) {
+            start[index(size - 1)] = s;
+        }
+
+        void removeFirst() {
+            head = index(1);
+            size -= 1;
+        }
+
+        void removeLast() {
+            size -= 1;
+        }
+
+        void retainStartsUpTo(long maxStart) {
+            int k = 0;
+            for (int j = 0; j < size; j++) {
+                int i = index(j);
+                if (start[i] <= maxStart) {
+                    int t = index(k);
+                    time[t] = time[i];
+                    start[t] = start[i];
+                    k += 1;
+                }
+            }
+            size = k;
+        }
+    }
+
+    private final int min;
+    private final int max;
+    private final Queue pending = new Queue();
+    private final Queue eligible = new Queue();
+    private long now = 0;
+
+    /**
+     * @param min número mínimo de repetições
+     * @param max número máximo de repetições, ou `Repeat.UNBOUNDED`
+     */
+    CountingSet(int min, int max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Descarta todas as entradas.
+     */
+    void clear() {
+        pending.clear();
+        eligible.clear();
+    }
+
+    /**
+     * Descarta as entradas com início depois de `maxStart`, preservando a
+     * ordem das demais.
+     */
+    void retainStartsUpTo(long maxStart) {
+        pending.retainStartsUpTo(maxStart);
+        eligible.retainStartsUpTo(maxStart);
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty() && eligible.isEmpty();
+    }
+
+    /**
+     * Registra uma <em>thread</em> que chegou à instrução no instante `time`,
+     * com início em `start`. Retorna `false` se já havia uma entrada nesse
+     * instante com início menor ou igual, caso em que nada muda.
+     */
+    boolean enter(long time, long start) {
+        if (isEmpty()) {
+            now = time;
+        }
+        if (min == 0) {
+            if (!eligible.isEmpty() && eligible.lastTime() == time
+                    && eligible.lastStart() <= start) {
+                return false;
+            }
+            pushEligible(time, start);
+            return true;
+        }
+        if (!pending.isEmpty() && pending.lastTime() == time) {
+            if (pending.lastStart() <= start) {
+                return false;
+            }
+            pending.setLastStart(start);
+            return true;
+        }
+        pending.addLast(time, start);
+        return true;
+    }
+
+    private void pushEligible(long time, long start) {
+        while (!eligible.isEmpty() && eligible.lastStart() >= start) {
+            eligible.removeLast();
+        }
+        eligible.addLast(time, start);
+    }
+
+    /**
+     * Avança um símbolo: se ele pertence ao corpo da repetição (`inBody`),
+     * todos os contadores são incrementados; senão, todas as entradas são
+     * descartadas.
+     */
+    void step(boolean inBody) {
+        now += 1;
+        if (!inBody) {
+            clear();
+            return;
+        }
+        while (!pending.isEmpty() && now - pending.firstTime() >= min) {
+            pushEligible(pending.firstTime(), pending.firstStart());
+            pending.removeFirst();
+        }
+        if (max != Repeat.UNBOUNDED) {
+            while (!eligible.isEmpty() && now - eligible.firstTime() > max) {
+                eligible.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Indica se alguma entrada tem contador entre `min` e `max`.
+     */
+    boolean canExit() {
+        return !eligible.isEmpty();
+    }
+
+    /**
+     * Menor posição de início entre as entradas que podem sair da repetição.
+     */
+    long exitStart() {
+        return eligible.firstStart();
+    }
+
+    @Override
+    public String toString() {
+        return "CountingSet{" + "min=" + min + ", max=" + max + ", now=" + now
+                + ", pending=" + pending.size + ", eligible=" + eligible.size + '}';
+    }
+
+}
@@ -0,0 +1,143 @@
+package ifes.flat.re;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconhecedor baseado em derivadas de Brzozowski. Cada ER distinta obtida por
+ * derivação recebe um número de estado, e cada par (estado, símbolo) tem a sua
+ * derivada calculada uma única vez e guardada em cache. Como as derivadas são
+ * normalizadas pelos construtores da `RegexFactory`, o número de derivadas
+ * distintas é finito, e o cache é, na prática, um AFD construído sob demanda,
+ * contendo apenas os estados efetivamente visitados pelas cadeias processadas.
+ * Como a fábrica faz <em>hash-consing</em>, os estados são identificados pela
+ * identidade das ERs.
+ *
+ * Depois que o cache está preenchido, cada símbolo da entrada custa apenas
+ * uma consulta a uma tabela de <em>hash</em>. Objetos desta classe não são
+ * seguros para uso concorrente.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class DerivativeMatcher<A> {
+
+    private final RegexFactory<A> factory;
+    private final List<Regex<A>> states;
+    private final Map<Regex<A>, Integer> ids;
+    private final List<Map<A, Integer>> trans;
+    private final BitSet finals;
+    private final BitSet dead;
+
+    /**
+     * Cria um reconhecedor para a ER `re`. A ER e as suas derivadas são
+     * construídas por uma `RegexFactory` própria, com <em>hash-consing</em>.
+     *
+     * @param re a expressão regular
+     */
+    public DerivativeMatcher(Regex<A> re) {
+        this.states = new ArrayList<>();
+        this.ids = new IdentityHashMap<>();
+        this.trans = new ArrayList<>();
+        this.finals = new BitSet();
+        this.dead = new BitSet();
+        this.factory = new RegexFactory<>();
+        intern(factory.normalize(re));
+    }
+
+    private int intern(Regex<A> re) {
+        Integer id = ids.get(re);
+        if (id == null) {
+            id = states.size();
+            ids.put(re, id);
+            states.add(re);
+            trans.add(new HashMap<>());
+            if (re.isNullable()) {
+                finals.set(id);
+            }
+            if (re instanceof Nothing) {
+                dead.set(id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Estado inicial, correspondente à ER original.
+     *
+     * @return o número do estado inicial
+     */
+    public int start() {
+        return 0;
+    }
+
+    /**
+     * Retorna o estado correspondente à derivada do estado `s` em relação ao
+     * símbolo `x`, calculando-a se ela ainda não está no cache.
+     *
+     * @param s número do estado
+     * @param x símbolo
+     * @return número do estado de destino
+     */
+    public int step(int s, A x) {
+        Map<A, Integer> row = trans.get(s);
+        Integer t = row.get(x);
+        if (t == null) {
+            t = intern(states.get(s).derivative(x, factory));
+            row.put(x, t);
+        }
+        return t;
+    }
+
+    public boolean isFinal(int s) {
+        return finals.get(s);
+    }
+
+    /**
+     * Indica se o estado `s` corresponde à ER `∅`, a partir da qual nenhuma
+     * cadeia é aceita.
+     *
+     * @param s número do estado
+     * @return `true` se `s` é um estado morto
+     */
+    public boolean isDead(int s) {
+        return dead.get(s);
+    }
+
+    public boolean accepts(List<A> w) {
+        int s = start();
+        for (int i = 0; i < w.size() && !dead.get(s); i++) {
+            s = step(s, w.get(i));
+        }
+        return finals.get(s);
+    }
+
+    /**
+     * ER (já simplificada) correspondente ao estado `s`.
+     *
+     * @param s número do estado
+     * @return a ER do estado `s`
+     */
+    public Regex<A> regexOf(int s) {
+        return states.get(s);
+    }
+
+    /**
+     * Número de estados (derivadas distintas) calculados até o momento.
+     *
+     * @return o número de estados no cache
+     */
+    public int numStates() {
+        return states.size();
+    }
+
+    @Override
+    public String toString() {
+        return "DerivativeMatcher{" + "re=" + states.get(0) + ", numStates=" + states.size() + '}';
+    }
+
+}
@@ -1,11 +1,5 @@
 package ifes.flat.re;
 
-import ifes.data.Pair;
-import static ifes.data.Pair.p;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
-
 /**
  *
  * @author jefferson
@@ -17,16 +11,14 @@ public class Empty<A> extends Regex<A> {
         super();
     }
 
-    /**
-     * Retorna um <em>match</em> que não consome nada da cadeia de entrada.
-     *
-     * @param w cadeia de entrada
-     * @return Um conjunto contendo um único <em>match</em> onde o primeiro
-     * elemento do par ordenado é a lista vazia, e o segundo elemento é a cadeia
-     */
     @Override
-    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
-        return Set.of(p(Collections.emptyList(), w));
+    public boolean isNullable() {
+        return true;
+    }
+
+    @Override
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        return factory.nothing();
     }
 
     @Override
@@ -34,4 +26,14 @@ public class Empty<A> extends Regex<A> {
         return "\u0190";
     }
 
+    @Override
+    public int hashCode() {
+        return 3;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && getClass() == obj.getClass();
+    }
+
 }
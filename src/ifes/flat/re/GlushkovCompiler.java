@@ -0,0 +1,228 @@
+package ifes.flat.re;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import ifes.flat.rl.Nfa;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Construção de Glushkov (autômato de posições): converte uma expressão
+ * regular em um AFN sem transições ε. Cada ocorrência de `Literal` ou de
+ * `CharClass` na ER é uma <em>posição</em>, numerada a partir de `1` da
+ * esquerda para a direita, e o AFN tem exatamente um estado por posição, mais
+ * o estado inicial `0`.
+ *
+ * Em uma única passada de baixo para cima sobre a árvore da ER são calculados,
+ * para cada nó, se ele aceita a cadeia vazia (<em>nullable</em>), o conjunto
+ * `first` das posições que podem iniciar uma cadeia e o conjunto `last` das
+ * posições que podem terminá-la; e, para cada posição, o conjunto `follow` das
+ * posições que podem vir logo depois dela (acrescentadas nos nós `Concat` e
+ * `Star`). O AFN resultante tem:
+ *
+ * <ul>
+ * <li>transições de `0` para cada posição `q` de `first` da ER, com o símbolo
+ * de `q`;</li>
+ * <li>transições de cada posição `p` para cada posição `q` de `follow(p)`, com
+ * o símbolo de `q`;</li>
+ * <li>como estados finais, as posições de `last` da ER, e também `0` se a ER
+ * aceita a cadeia vazia.</li>
+ * </ul>
+ *
+ * O fecho positivo `re+` (`Repeat` `re{1,}`) é tratado como `Star`, mas só
+ * aceita a cadeia vazia se `re` aceita; as demais repetições (`Repeat`) são
+ * expandidas (`Repeat.unroll`), e cada cópia de `re` tem as suas próprias
+ * posições. Formas expandidas com mais de `Repeat.MAX_AUTOMATON_UNROLLED_SIZE`
+ * nós são recusadas.
+ *
+ * As transições de uma `CharClass` são rotuladas com um símbolo por bloco da
+ * `CharPartition` da ER, o representante do bloco, e não com um símbolo por
+ * caractere. Todas as transições que chegam a um estado têm o mesmo símbolo
+ * (ou símbolos da mesma classe), o que torna o autômato uma boa entrada para a simulação
+ * bit-paralela e para a determinização.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class GlushkovCompiler {
+
+    private GlushkovCompiler() {
+    }
+
+    /**
+     * Informações calculadas para um nó da ER. Os conjuntos podem ser
+     * compartilhados entre nós e não devem ser modificados.
+     */
+    private static final class Info {
+
+        final boolean nullable;
+        final BitSet first;
+        final BitSet last;
+
+        Info(boolean nullable, BitSet first, BitSet last) {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    private static BitSet or(BitSet a, BitSet b) {
+        if (b.isEmpty()) {
+            return a;
+        } else if (a.isEmpty()) {
+            return b;
+        }
+        BitSet r = (BitSet) a.clone();
+        r.or(b);
+        return r;
+    }
+
+    /**
+     * Símbolos reconhecidos por uma posição: o símbolo de um `Literal`, ou os
+     * representantes dos blocos de uma `CharClass`.
+     */
+    @SuppressWarnings("unchecked")
+    private static <A> List<A> symbolsOf(Regex<A> node, CharPartition blocks) {
+        if (node instanceof CharClass) {
+            return (List<A>) blocks.representatives((CharClass) node);
+        }
+        return List.of(((Literal<A>) node).symbol);
+    }
+
+    /**
+     * Retorna um AFN sem transições ε que reconhece a mesma linguagem que a ER
+     * `re`. O alfabeto do autômato é o conjunto dos símbolos que aparecem em
+     * `re`, e cada classe de caracteres contribui com os representantes dos
+     * seus blocos (veja `CharPartition`).
+     *
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param re a expressão regular
+     * @return o autômato de posições de `re`
+     * @throws IllegalArgumentException se `re` contém um tipo de nó
+     * desconhecido, ou uma repetição cuja forma expandida excede
+     * `Repeat.MAX_AUTOMATON_UNROLLED_SIZE` nós
+     */
+    public static <A> Nfa<Integer, A> compile(Regex<A> re) {
+        BitSet none = new BitSet();
+        // Símbolos e conjunto `follow` de cada posição; a posição 0 não é usada.
+        List<List<A>> symbols = new ArrayList<>();
+        List<BitSet> follow = new ArrayList<>();
+        symbols.add(null);
+        follow.add(null);
+        // Pilha de nós a visitar; um nó já expandido é marcado com `true`.
+        Deque<Pair<Regex<A>, Boolean>> work = new ArrayDeque<>();
+        Deque<Info> infos = new ArrayDeque<>();
+        // Calculada apenas se `re` tem alguma classe de caracteres.
+        CharPartition blocks = null;
+        work.push(p(re, false));
+        while (!work.isEmpty()) {
+            var item = work.pop();
+            Regex<A> node = item._1;
+            boolean expanded = item._2;
+            if (node instanceof Literal || node instanceof CharClass) {
+                if (node instanceof CharClass && blocks == null) {
+                    blocks = CharPartition.of(re);
+                }
+                BitSet pos = new BitSet();
+                pos.set(symbols.size());
+                symbols.add(symbolsOf(node, blocks));
+                follow.add(new BitSet());
+                infos.push(new Info(false, pos, pos));
+            } else if (node instanceof Empty) {
+                infos.push(new Info(true, none, none));
+            } else if (node instanceof Nothing) {
+                infos.push(new Info(false, none, none));
+            } else if (node instanceof Concat) {
+                Concat<A> c = (Concat<A>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(c.re2, false));
+                    work.push(p(c.re1, false));
+                } else {
+                    Info i2 = infos.pop();
+                    Info i1 = infos.pop();
+                    for (int q = i1.last.nextSetBit(0); q >= 0; q = i1.last.nextSetBit(q + 1)) {
+                        follow.get(q).or(i2.first);
+                    }
+                    infos.push(new Info(i1.nullable && i2.nullable,
+                            i1.nullable ? or(i1.first, i2.first) : i1.first,
+                            i2.nullable ? or(i1.last, i2.last) : i2.last));
+                }
+            } else if (node instanceof Union) {
+                Union<A> u = (Union<A>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(u.re2, false));
+                    work.push(p(u.re1, false));
+                } else {
+                    Info i2 = infos.pop();
+                    Info i1 = infos.pop();
+                    infos.push(new Info(i1.nullable || i2.nullable,
+                            or(i1.first, i2.first), or(i1.last, i2.last)));
+                }
+            } else if (node instanceof Star) {
+                Star<A> st = (Star<A>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(st.re, false));
+                } else {
+                    Info i1 = infos.pop();
+                    for (int q = i1.last.nextSetBit(0); q >= 0; q = i1.last.nextSetBit(q + 1)) {
+                        follow.get(q).or(i1.first);
+                    }
+                    infos.push(new Info(true, i1.first, i1.last));
+                }
+            } else if (node instanceof Repeat) {
+                Repeat<A> r = (Repeat<A>) node;
+                if (!r.isLoop()) {
+                    work.push(p(r.unrollForAutomaton(), false));
+                } else if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(r.re, false));
+                } else {
+                    Info i1 = infos.pop();
+                    for (int q = i1.last.nextSetBit(0); q >= 0; q = i1.last.nextSetBit(q + 1)) {
+                        follow.get(q).or(i1.first);
+                    }
+                    infos.push(new Info(r.min == 0 || i1.nullable, i1.first, i1.last));
+                }
+            } else {
+                throw new IllegalArgumentException("Tipo de expressão regular desconhecido: "
+                        + node.getClass().getName());
+            }
+        }
+        Info root = infos.pop();
+
+        int n = symbols.size();
+        Set<A> alphabet = new HashSet<>();
+        for (int q = 1; q < n; q++) {
+            alphabet.addAll(symbols.get(q));
+        }
+        Set<Integer> states = new HashSet<>();
+        Set<Integer> finals = new HashSet<>();
+        Map<Pair<Integer, A>, Set<Integer>> transFn = new HashMap<>();
+        for (int q = 0; q < n; q++) {
+            states.add(q);
+            BitSet succ = (q == 0) ? root.first : follow.get(q);
+            for (int t = succ.nextSetBit(0); t >= 0; t = succ.nextSetBit(t + 1)) {
+                for (A x : symbols.get(t)) {
+                    transFn.computeIfAbsent(p(q, x), k -> new HashSet<>()).add(t);
+                }
+            }
+        }
+        for (int q = root.last.nextSetBit(0); q >= 0; q = root.last.nextSetBit(q + 1)) {
+            finals.add(q);
+        }
+        if (root.nullable) {
+            finals.add(0);
+        }
+        return new Nfa<>(alphabet, states, transFn, 0, finals);
+    }
+
+}
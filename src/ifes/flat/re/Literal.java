@@ -1,11 +1,6 @@
 package ifes.flat.re;
 
-import ifes.data.Pair;
-import static ifes.data.Pair.p;
-import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  *
@@ -19,26 +14,14 @@ public class Literal<A> extends Regex<A> {
         this.symbol = symbol;
     }
 
-    /**
-     * Retorna um <em>match</em> caso o primeiro símbolo da cadeia de entrada
-     * seja igual ao símbolo da expressão regular, e nenhum match caso
-     * contrário. Caso retorne um <em>match</em>, o primeiro elemento do par
-     * será uma lista com exatamente um elemento (o símbolo da ER), e o segundo
-     * elemento será a lista com o restante dos símbolos da cadeira de entrada.
-     *
-     * @param w a cadeia de entrada
-     * @return Um conjunto com exatamente um <em>match</em> caso o primeiro
-     * símbolo da cadeia seja igual ao símbolo da expressão, e um conjunto vazio
-     * caso contrário
-     */
     @Override
-    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
-        if (!w.isEmpty() && symbol.equals(w.get(0))) {
-            var m = p(List.of(w.get(0)), w.subList(1, w.size()));
-            return Set.of(m);
-        } else {
-            return Collections.emptySet();
-        }
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        return symbol.equals(x) ? factory.empty() : factory.nothing();
     }
 
     @Override
@@ -0,0 +1,358 @@
+package ifes.flat.re;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pré-filtro de busca: uma cadeia literal que ocorre em todo trecho
+ * reconhecido por uma ER, obtida por uma análise da árvore da ER (`of`). Antes
+ * de executar o autômato, a busca localiza as ocorrências do literal com um
+ * algoritmo de busca de subcadeias (`String.indexOf`, ou Horspool para outras
+ * `CharSequence`), e as regiões da entrada que não podem conter o início de um
+ * reconhecimento são saltadas.
+ *
+ * Para cada nó da ER a análise calcula, de baixo para cima:
+ *
+ * <ul>
+ * <li>`exact`: a única cadeia reconhecida pelo nó, se houver;</li>
+ * <li>`prefix` e `suffix`: um prefixo e um sufixo comuns a todas as cadeias
+ * reconhecidas;</li>
+ * <li>`required`: uma subcadeia comum a todas elas (em `r1 r2`, também o
+ * sufixo de `r1` seguido do prefixo de `r2`);</li>
+ * <li>o tamanho máximo das cadeias reconhecidas, se for limitado.</li>
+ * </ul>
+ *
+ * Se o prefixo da ER for longo o bastante, ele é o literal escolhido, e um
+ * reconhecimento só pode começar em uma ocorrência dele. Caso contrário é
+ * usada a subcadeia obrigatória; se o tamanho dos reconhecimentos é limitado
+ * por `maxLength`, um reconhecimento que contém uma ocorrência em `p` começa
+ * em `p + |literal| - maxLength` ou depois, e, em qualquer caso, a ausência
+ * do literal no restante da entrada encerra a busca. Os literais são
+ * limitados a `MAX_LITERAL_LENGTH` caracteres, o que mantém a análise linear
+ * no tamanho da ER.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class LiteralPrefilter {
+
+    /**
+     * Tamanho máximo dos literais calculados pela análise.
+     */
+    public static final int MAX_LITERAL_LENGTH = 256;
+
+    private static final long UNBOUNDED = -1;
+
+    private final String literal;
+    private final boolean prefix;
+    private final long maxLength;
+    // Deslocamentos de Horspool, indexados pelos 8 bits menos significativos
+    // do caractere; caracteres que colidem ficam com o menor deslocamento.
+    private final int[] shift;
+
+    private LiteralPrefilter(String literal, boolean prefix, long maxLength) {
+        this.literal = literal;
+        this.prefix = prefix;
+        this.maxLength = maxLength;
+        int m = literal.length();
+        this.shift = new int[256];
+        for (int k = 0; k < shift.length; k++) {
+            shift[k] = m;
+        }
+        for (int k = 0; k < m - 1; k++) {
+            shift[literal.charAt(k) & 0xFF] = m - 1 - k;
+        }
+    }
+
+    /**
+     * Resultado da análise de um nó.
+     */
+    private static final class Info {
+
+        final String exact;
+        final String prefix;
+        final String suffix;
+        final String required;
+        final long maxLength;
+
+        Info(String exact, String prefix, String suffix, String required, long maxLength) {
+            this.exact = exact;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.required = required;
+            this.maxLength = maxLength;
+        }
+
+        static Info exact(String s) {
+            if (s.length() > MAX_LITERAL_LENGTH) {
+                String head = s.substring(0, MAX_LITERAL_LENGTH);
+                String tail = s.substring(s.length() - MAX_LITERAL_LENGTH);
+                return new Info(null, head, tail, head, s.length());
+            }
+            return new Info(s, s, s, s, s.length());
+        }
+
+        static Info none(long maxLength) {
+            return new Info(null, "", "", "", maxLength);
+        }
+    }
+
+    private static String longest(String a, String b) {
+        return (b.length() > a.length()) ? b : a;
+    }
+
+    private static String head(String s) {
+        return (s.length() > MAX_LITERAL_LENGTH) ? s.substring(0, MAX_LITERAL_LENGTH) : s;
+    }
+
+    private static String tail(String s) {
+        return (s.length() > MAX_LITERAL_LENGTH)
+                ? s.substring(s.length() - MAX_LITERAL_LENGTH) : s;
+    }
+
+    private static String commonPrefix(String a, String b) {
+        int k = 0;
+        while (k < a.length() && k < b.length() && a.charAt(k) == b.charAt(k)) {
+            k++;
+        }
+        return a.substring(0, k);
+    }
+
+    private static String commonSuffix(String a, String b) {
+        int k = 0;
+        while (k < a.length() && k < b.length()
+                && a.charAt(a.length() - 1 - k) == b.charAt(b.length() - 1 - k)) {
+            k++;
+        }
+        return a.substring(a.length() - k);
+    }
+
+    private static long addLengths(long a, long b) {
+        return (a == UNBOUNDED || b == UNBOUNDED) ? UNBOUNDED : a + b;
+    }
+
+    private static Info concat(Info i1, Info i2) {
+        long max = addLengths(i1.maxLength, i2.maxLength);
+        if (i1.exact != null && i2.exact != null) {
+            Info r = Info.exact(i1.exact + i2.exact);
+            return new Info(r.exact, r.prefix, r.suffix, r.required, max);
+        }
+        String pre = (i1.exact != null) ? head(i1.exact + i2.prefix) : i1.prefix;
+        String suf = (i2.exact != null) ? tail(i1.suffix + i2.exact) : i2.suffix;
+        String req = longest(longest(i1.required, i2.required), head(i1.suffix + i2.prefix));
+        return new Info(null, pre, suf, longest(req, longest(pre, suf)), max);
+    }
+
+    private static Info union(Info i1, Info i2) {
+        long max = (i1.maxLength == UNBOUNDED || i2.maxLength == UNBOUNDED)
+                ? UNBOUNDED : Math.max(i1.maxLength, i2.maxLength);
+        if (i1.exact != null && i1.exact.equals(i2.exact)) {
+            return i1;
+        }
+        String pre = commonPrefix(i1.prefix, i2.prefix);
+        String suf = commonSuffix(i1.suffix, i2.suffix);
+        String req = i1.required.equals(i2.required) ? i1.required : "";
+        return new Info(null, pre, suf, longest(req, longest(pre, suf)), max);
+    }
+
+    private static Info repeat(Info i1, int min, int max) {
+        long len;
+        if (i1.maxLength == 0 || max == 0) {
+            len = 0;
+        } else if (max == Repeat.UNBOUNDED || i1.maxLength == UNBOUNDED
+                || i1.maxLength > Long.MAX_VALUE / max) {
+            len = UNBOUNDED;
+        } else {
+            len = i1.maxLength * max;
+        }
+        if (min == 0) {
+            return Info.none(len);
+        } else if (min == max && i1.exact != null
+                && (long) i1.exact.length() * min <= MAX_LITERAL_LENGTH) {
+            return Info.exact(i1.exact.repeat(min));
+        }
+        return new Info(null, i1.prefix, i1.suffix, i1.required, len);
+    }
+
+    /**
+     * Analisa a ER `re` e retorna o pré-filtro correspondente.
+     *
+     * @param re a expressão regular
+     * @return o pré-filtro, ou `null` se não há um literal obrigatório
+     * @throws IllegalArgumentException se `re` contém um tipo de nó
+     * desconhecido
+     */
+    public static LiteralPrefilter of(Regex<Character> re) {
+        // Pilha de nós a visitar; um nó já expandido é marcado com `true`.
+        Deque<Pair<Regex<Character>, Boolean>> work = new ArrayDeque<>();
+        Deque<Info> infos = new ArrayDeque<>();
+        work.push(p(re, false));
+        while (!work.isEmpty()) {
+            var item = work.pop();
+            Regex<Character> node = item._1;
+            boolean expanded = item._2;
+            if (node instanceof Literal) {
+                infos.push(Info.exact(String.valueOf(((Literal<Character>) node).symbol)));
+            } else if (node instanceof CharClass) {
+                CharClass cc = (CharClass) node;
+                infos.push(cc.size() == 1 ? Info.exact(String.valueOf(cc.low(0))) : Info.none(1));
+            } else if (node instanceof Empty) {
+                infos.push(Info.exact(""));
+            } else if (node instanceof Nothing) {
+                infos.push(Info.none(0));
+            } else if (node instanceof Concat || node instanceof Union) {
+                if (!expanded) {
+                    work.push(p(node, true));
+                    if (node instanceof Concat) {
+                        work.push(p(((Concat<Character>) node).re2, false));
+                        work.push(p(((Concat<Character>) node).re1, false));
+                    } else {
+                        work.push(p(((Union<Character>) node).re2, false));
+                        work.push(p(((Union<Character>) node).re1, false));
+                    }
+                } else {
+                    Info i2 = infos.pop();
+                    Info i1 = infos.pop();
+                    infos.push((node instanceof Concat) ? concat(i1, i2) : union(i1, i2));
+                }
+            } else if (node instanceof Star) {
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(((Star<Character>) node).re, false));
+                } else {
+                    Info i1 = infos.pop();
+                    infos.push(Info.none(i1.maxLength == 0 ? 0 : UNBOUNDED));
+                }
+            } else if (node instanceof Repeat) {
+                Repeat<Character> r = (Repeat<Character>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(r.re, false));
+                } else {
+                    infos.push(repeat(infos.pop(), r.min, r.max));
+                }
+            } else {
+                throw new IllegalArgumentException("Tipo de expressão regular desconhecido: "
+                        + node.getClass().getName());
+            }
+        }
+        Info root = infos.pop();
+        if (root.required.isEmpty()) {
+            return null;
+        }
+        // O prefixo permite saltar diretamente para as ocorrências; ele é
+        // preferido, a menos que seja bem mais curto que a subcadeia.
+        if (!root.prefix.isEmpty() && 2 * root.prefix.length() >= root.required.length()) {
+            return new LiteralPrefilter(root.prefix, true, root.maxLength);
+        }
+        return new LiteralPrefilter(root.required, false, root.maxLength);
+    }
+
+    public String getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Indica se todo reconhecimento começa pelo literal.
+     *
+     * @return `true` se o literal é prefixo de todo reconhecimento
+     */
+    public boolean isPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Tamanho máximo dos reconhecimentos.
+     *
+     * @return o tamanho máximo, ou `-1` se não é limitado
+     */
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Indica se as ocorrências do literal limitam as posições de início dos
+     * reconhecimentos, isto é, se o literal é prefixo ou se o tamanho dos
+     * reconhecimentos é limitado.
+     *
+     * @return `true` se `startBound` pode saltar posições
+     */
+    public boolean canSkip() {
+        return prefix || maxLength != UNBOUNDED;
+    }
+
+    /**
+     * Primeira ocorrência do literal em `s` a partir da posição `from`.
+     *
+     * @param s cadeia de entrada
+     * @param from posição inicial da busca
+     * @return a posição da ocorrência, ou `-1` se não há nenhuma
+     */
+    public int indexOf(CharSequence s, int from) {
+        if (s instanceof String) {
+            return ((String) s).indexOf(literal, from);
+        }
+        int m = literal.length();
+        char lastChar = literal.charAt(m - 1);
+        int last = s.length() - m;
+        int i = Math.max(from, 0);
+        while (i <= last) {
+            char c = s.charAt(i + m - 1);
+            if (c == lastChar && regionMatches(s, i)) {
+                return i;
+            }
+            i += shift[c & 0xFF];
+        }
+        return -1;
+    }
+
+    private boolean regionMatches(CharSequence s, int i) {
+        for (int k = 0; k < literal.length(); k++) {
+            if (s.charAt(i + k) != literal.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Menor posição em que pode começar um reconhecimento que contém a
+     * ocorrência do literal na posição `occurrence`.
+     *
+     * @param occurrence posição de uma ocorrência do literal
+     * @return a menor posição de início possível
+     */
+    public long startBound(long occurrence) {
+        if (prefix) {
+            return occurrence;
+        } else if (maxLength != UNBOUNDED) {
+            return Math.max(0, occurrence + literal.length() - maxLength);
+        }
+        return 0;
+    }
+
+    /**
+     * Indica se a cadeia `s` inteira pode ser reconhecida, isto é, se ela
+     * contém o literal (como prefixo, se for o caso) e não é mais longa que
+     * `maxLength`. Um resultado `false` é definitivo.
+     *
+     * @param s cadeia de entrada
+     * @return `false` se `s` certamente não é reconhecida
+     */
+    public boolean mayMatch(CharSequence s) {
+        if (maxLength != UNBOUNDED && s.length() > maxLength) {
+            return false;
+        } else if (prefix) {
+            return s.length() >= literal.length() && regionMatches(s, 0);
+        }
+        return indexOf(s, 0) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LiteralPrefilter{" + "literal=" + literal + ", prefix=" + prefix
+                + ", maxLength=" + maxLength + '}';
+    }
+
+}
@@ -1,10 +1,5 @@
 package ifes.flat.re;
 
-import ifes.data.Pair;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
-
 /**
  *
  * @author jefferson
@@ -16,22 +11,29 @@ public class Nothing<A> extends Regex<A> {
         super();
     }
 
-    /**
-     * Retorna um conjunto vazio, sinalizando que nenhum <em>match</em> foi
-     * reconhecido. A expressão regular <em>nada</em>, por definição, nunca tem
-     * sucesso em reconhecer caracteres.
-     *
-     * @param w cadeia de entrada
-     * @return um conjunto vazio
-     */
     @Override
-    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
-        return Collections.emptySet();
+    public boolean isNullable() {
+        return false;
+    }
+
+    @Override
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        return factory.nothing();
     }
 
     @Override
     public String toString() {
         return "\u2205";
     }
-    
+
+    @Override
+    public int hashCode() {
+        return 5;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && getClass() == obj.getClass();
+    }
+
 }
@@ -0,0 +1,391 @@
+package ifes.flat.re;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Máquina virtual no estilo de Pike para expressões regulares. A ER é
+ * compilada para um programa com as instruções:
+ *
+ * <ul>
+ * <li>`CHAR a`: consome o símbolo `a`;</li>
+ * <li>`CLASS c`: consome um caractere da classe `c` (uma `CharClass`, com
+ * os seus intervalos);</li>
+ * <li>`SPLIT x y`: continua tanto em `x` quanto em `y`;</li>
+ * <li>`JMP x`: continua em `x`;</li>
+ * <li>`FAIL`: encerra a <em>thread</em> (ER `∅`);</li>
+ * <li>`MATCH`: a ER foi reconhecida;</li>
+ * <li>`COUNT min max s`: repetição `s{min,max}` de um único símbolo ou
+ * classe `s` (um `Literal` ou uma `CharClass`); os valores do contador ficam
+ * em um `CountingSet`, e a instrução continua em `pc + 1` quando algum deles
+ * está entre `min` e `max`.</li>
+ * </ul>
+ *
+ * O programa tem tamanho linear no tamanho da ER, e a execução simula todas
+ * as <em>threads</em> em paralelo, símbolo a símbolo. As listas de
+ * <em>threads</em> são conjuntos esparsos (vetores `dense` e `sparse`), com
+ * inserção, teste de pertinência e limpeza em tempo constante; como cada
+ * instrução entra no máximo uma vez em cada lista, a execução sobre uma
+ * cadeia de tamanho `n` custa O(n·m), onde `m` é o tamanho do programa, mesmo
+ * para ERs como `(a*)*`.
+ *
+ * Uma repetição limitada `s{m,n}` de um único símbolo ocupa uma só instrução
+ * `COUNT`, e não `n` cópias de `s`, e cada passo da instrução custa O(1)
+ * amortizado. O fecho positivo `r+` (`r{1,}`) ocupa uma única cópia de `r`
+ * seguida de `SPLIT` de volta ao seu início; as demais repetições de ERs mais
+ * complexas são expandidas (`Repeat.unroll`).
+ *
+ * Os objetos são imutáveis depois de construídos, e podem ser compartilhados
+ * entre várias <em>threads</em>.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class PikeVm<A> {
+
+    static final int CHAR = 0;
+    static final int SPLIT = 1;
+    static final int JMP = 2;
+    static final int FAIL = 3;
+    static final int MATCH = 4;
+    static final int CLASS = 5;
+    static final int COUNT = 6;
+
+    private final int[] op;
+    private final int[] x;
+    private final int[] y;
+    private final Object[] symbol;
+
+    private PikeVm(int[] op, int[] x, int[] y, Object[] symbol) {
+        this.op = op;
+        this.x = x;
+        this.y = y;
+        this.symbol = symbol;
+    }
+
+    /**
+     * Programa em construção.
+     */
+    private static final class Code {
+
+        int[] op = new int[16];
+        int[] x = new int[16];
+        int[] y = new int[16];
+        Object[] symbol = new Object[16];
+        int size = 0;
+
+        int emit(int o, int a, int b, Object s) {
+            if (size == op.length) {
+                int n = 2 * size;
+                op = Arrays.copyOf(op, n);
+                x = Arrays.copyOf(x, n);
+                y = Arrays.copyOf(y, n);
+                symbol = Arrays.copyOf(symbol, n);
+            }
+            op[size] = o;
+            x[size] = a;
+            y[size] = b;
+            symbol[size] = s;
+            return size++;
+        }
+    }
+
+    // Tarefas da compilação iterativa.
+    private static final int VISIT = 0;
+    private static final int UNION_MID = 1;
+    private static final int UNION_END = 2;
+    private static final int STAR_END = 3;
+    private static final int PLUS_END = 4;
+
+    /**
+     * Compila a ER `re`. A árvore é percorrida iterativamente, de modo que
+     * ERs muito profundas não esgotam a pilha de execução.
+     *
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param re a expressão regular
+     * @return o programa correspondente a `re`
+     * @throws IllegalArgumentException se `re` contém um tipo de nó
+     * desconhecido, ou uma repetição cuja forma expandida excede
+     * `Repeat.MAX_UNROLLED_SIZE` nós
+     */
+    public static <A> PikeVm<A> compile(Regex<A> re) {
+        Code code = new Code();
+        Deque<Regex<A>> nodes = new ArrayDeque<>();
+        Deque<Integer> tasks = new ArrayDeque<>();
+        // Endereços de instruções que aguardam o endereço de destino.
+        Deque<Integer> pending = new ArrayDeque<>();
+        nodes.push(re);
+        tasks.push(VISIT);
+        while (!tasks.isEmpty()) {
+            int task = tasks.pop();
+            if (task == UNION_MID) {
+                int split = pending.pop();
+                pending.push(code.emit(JMP, -1, 0, null));
+                code.y[split] = code.size;
+                continue;
+            } else if (task == UNION_END) {
+                code.x[pending.pop()] = code.size;
+                continue;
+            } else if (task == STAR_END) {
+                int split = pending.pop();
+                code.emit(JMP, split, 0, null);
+                code.y[split] = code.size;
+                continue;
+            } else if (task == PLUS_END) {
+                code.emit(SPLIT, pending.pop(), code.size + 1, null);
+                continue;
+            }
+            Regex<A> node = nodes.pop();
+            if (node instanceof Literal) {
+                code.emit(CHAR, 0, 0, ((Literal<A>) node).symbol);
+            } else if (node instanceof CharClass) {
+                code.emit(CLASS, 0, 0, node);
+            } else if (node instanceof Empty) {
+                // Nenhuma instrução.
+            } else if (node instanceof Nothing) {
+                code.emit(FAIL, 0, 0, null);
+            } else if (node instanceof Concat) {
+                Concat<A> c = (Concat<A>) node;
+                nodes.push(c.re2);
+                tasks.push(VISIT);
+                nodes.push(c.re1);
+                tasks.push(VISIT);
+            } else if (node instanceof Union) {
+                Union<A> u = (Union<A>) node;
+                pending.push(code.emit(SPLIT, code.size + 1, -1, null));
+                tasks.push(UNION_END);
+                nodes.push(u.re2);
+                tasks.push(VISIT);
+                tasks.push(UNION_MID);
+                nodes.push(u.re1);
+                tasks.push(VISIT);
+            } else if (node instanceof Star) {
+                pending.push(code.emit(SPLIT, code.size + 1, -1, null));
+                tasks.push(STAR_END);
+                nodes.push(((Star<A>) node).re);
+                tasks.push(VISIT);
+            } else if (node instanceof Repeat) {
+                Repeat<A> r = (Repeat<A>) node;
+                if (r.max == 0) {
+                    // `s{0,0}` reconhece apenas a cadeia vazia.
+                } else if (r.isLoop() && r.min == 0) {
+                    pending.push(code.emit(SPLIT, code.size + 1, -1, null));
+                    tasks.push(STAR_END);
+                    nodes.push(r.re);
+                    tasks.push(VISIT);
+                } else if (r.isLoop()) {
+                    // L: r; SPLIT L, próxima
+                    pending.push(code.size);
+                    tasks.push(PLUS_END);
+                    nodes.push(r.re);
+                    tasks.push(VISIT);
+                } else if (r.hasSingleSymbolBody()) {
+                    code.emit(COUNT, r.min, r.max, r.re);
+                } else {
+                    nodes.push(r.unroll(true));
+                    tasks.push(VISIT);
+                }
+            } else {
+                throw new IllegalArgumentException("Tipo de expressão regular desconhecido: "
+                        + node.getClass().getName());
+            }
+        }
+        code.emit(MATCH, 0, 0, null);
+        int n = code.size;
+        return new PikeVm<>(Arrays.copyOf(code.op, n), Arrays.copyOf(code.x, n),
+                Arrays.copyOf(code.y, n), Arrays.copyOf(code.symbol, n));
+    }
+
+    /**
+     * Tamanho do programa (número de instruções).
+     *
+     * @return o número de instruções
+     */
+    public int size() {
+        return op.length;
+    }
+
+    int op(int pc) {
+        return op[pc];
+    }
+
+    int x(int pc) {
+        return x[pc];
+    }
+
+    int y(int pc) {
+        return y[pc];
+    }
+
+    Object symbol(int pc) {
+        return symbol[pc];
+    }
+
+    /**
+     * Indica se o símbolo `a` é reconhecido pelo corpo `body` de uma
+     * instrução `COUNT`.
+     */
+    private static boolean inBody(Object body, Object a) {
+        if (body instanceof CharClass) {
+            return a instanceof Character && ((CharClass) body).contains((Character) a);
+        }
+        return ((Literal<?>) body).symbol.equals(a);
+    }
+
+    /**
+     * Cria os contadores das instruções `COUNT` para uma execução.
+     */
+    CountingSet[] newCounters() {
+        CountingSet[] counters = null;
+        for (int pc = 0; pc < op.length; pc++) {
+            if (op[pc] == COUNT) {
+                if (counters == null) {
+                    counters = new CountingSet[op.length];
+                }
+                counters[pc] = new CountingSet(x[pc], y[pc]);
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Lista de <em>threads</em>: conjunto esparso de endereços de instruções.
+     */
+    private static final class ThreadList {
+
+        final int[] dense;
+        final int[] sparse;
+        int size;
+
+        ThreadList(int n) {
+            this.dense = new int[n];
+            this.sparse = new int[n];
+            this.size = 0;
+        }
+
+        boolean contains(int pc) {
+            int i = sparse[pc];
+            return i < size && dense[i] == pc;
+        }
+
+        void add(int pc) {
+            sparse[pc] = size;
+            dense[size++] = pc;
+        }
+    }
+
+    /**
+     * Acrescenta a `list` a <em>thread</em> em `pc` e todas as que dela
+     * decorrem por `JMP` e `SPLIT`, no instante `time`. Uma <em>thread</em>
+     * que chega a uma instrução `COUNT` é registrada no seu contador e, se
+     * `min` é `0`, continua também em `pc + 1`.
+     */
+    private void addThread(ThreadList list, int pc, int[] stack,
+            CountingSet[] counters, long time) {
+        int top = 0;
+        stack[top++] = pc;
+        while (top > 0) {
+            int i = stack[--top];
+            if (op[i] == COUNT) {
+                if (counters[i].enter(time, 0)) {
+                    if (!list.contains(i)) {
+                        list.add(i);
+                    }
+                    if (x[i] == 0) {
+                        stack[top++] = i + 1;
+                    }
+                }
+                continue;
+            }
+            if (list.contains(i)) {
+                continue;
+            }
+            list.add(i);
+            if (op[i] == JMP) {
+                stack[top++] = x[i];
+            } else if (op[i] == SPLIT) {
+                stack[top++] = y[i];
+                stack[top++] = x[i];
+            }
+        }
+    }
+
+    /**
+     * Retorna o conjunto das posições `j` tais que o trecho `w[start..j)` da
+     * cadeia de entrada é reconhecido pela ER.
+     *
+     * @param w cadeia de entrada
+     * @param start posição inicial do reconhecimento
+     * @return as posições finais dos reconhecimentos a partir de `start`
+     */
+    public BitSet endPositions(List<A> w, int start) {
+        int m = op.length;
+        BitSet ends = new BitSet();
+        ThreadList clist = new ThreadList(m);
+        ThreadList nlist = new ThreadList(m);
+        // Cada instrução é empilhada no máximo duas vezes (por JMP e SPLIT).
+        int[] stack = new int[2 * m + 1];
+        CountingSet[] counters = newCounters();
+        addThread(clist, 0, stack, counters, start);
+        for (int i = start; clist.size > 0; i++) {
+            boolean done = i >= w.size();
+            A a = done ? null : w.get(i);
+            nlist.size = 0;
+            if (!done && counters != null) {
+                // Os contadores avançam antes que novas threads cheguem a eles.
+                for (int k = 0; k < clist.size; k++) {
+                    int pc = clist.dense[k];
+                    if (op[pc] == COUNT) {
+                        counters[pc].step(inBody(symbol[pc], a));
+                    }
+                }
+            }
+            for (int k = 0; k < clist.size; k++) {
+                int pc = clist.dense[k];
+                if (op[pc] == MATCH) {
+                    ends.set(i);
+                } else if (done) {
+                    continue;
+                } else if (op[pc] == CHAR && symbol[pc].equals(a)) {
+                    addThread(nlist, pc + 1, stack, counters, i + 1);
+                } else if (op[pc] == CLASS && a instanceof Character
+                        && ((CharClass) symbol[pc]).contains((Character) a)) {
+                    addThread(nlist, pc + 1, stack, counters, i + 1);
+                } else if (op[pc] == COUNT && !counters[pc].isEmpty()) {
+                    if (!nlist.contains(pc)) {
+                        nlist.add(pc);
+                    }
+                    if (counters[pc].canExit()) {
+                        addThread(nlist, pc + 1, stack, counters, i + 1);
+                    }
+                }
+            }
+            if (done) {
+                break;
+            }
+            ThreadList t = clist;
+            clist = nlist;
+            nlist = t;
+        }
+        return ends;
+    }
+
+    /**
+     * Indica se a cadeia `w` inteira é reconhecida pela ER.
+     *
+     * @param w cadeia de entrada
+     * @return `true` se a ER aceita `w`
+     */
+    public boolean accepts(List<A> w) {
+        return endPositions(w, 0).get(w.size());
+    }
+
+    @Override
+    public String toString() {
+        return "PikeVm{" + "size=" + op.length + '}';
+    }
+
+}
@@ -1,12 +1,22 @@
 package ifes.flat.re;
 
 import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import ifes.flat.rl.Enfa;
+import ifes.flat.rl.Nfa;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
+ * Expressão regular, representada como uma árvore de nós imutáveis.
+ *
+ * Os nós compostos (`Concat`, `Union`, `Star` e `Repeat`) calculam o seu
+ * `hashCode`, e `Concat` e `Union` também `isNullable`, na construção, a
+ * partir dos valores já calculados dos filhos. Assim, essas operações custam
+ * O(1) e não percorrem recursivamente ERs profundas, como as longas cadeias
+ * de uniões e concatenações produzidas pelas derivadas.
  *
  * @author jefferson
  * @param <A> tipo de dado que representa os símbolos do alfabeto reconhecido
@@ -14,6 +24,9 @@ import java.util.stream.Stream;
  */
 public abstract class Regex<A> implements Cloneable {
 
+    // Programa da PikeVm, compilado sob demanda por `endPositions` e `accepts`.
+    private PikeVm<A> program;
+
     public static <A> Regex<A> nothing() {
         return new Nothing<>();
     }
@@ -22,9 +35,18 @@ public abstract class Regex<A> implements Cloneable {
         return new Empty<>();
     }
     
+    /**
+     * Compila o padrão `pattern`. Os padrões compilados são guardados no
+     * cache padrão (`RegexCache.getDefault()`), de modo que chamadas
+     * repetidas com o mesmo padrão não repetem a análise sintática; a ER
+     * retornada é compartilhada e imutável.
+     *
+     * @param pattern texto do padrão, na sintaxe do `RegexParser`
+     * @return a ER correspondente ao padrão
+     * @throws IllegalArgumentException se o padrão é vazio ou inválido
+     */
     public static Regex<Character> compile(String pattern) {
-        var p = new RegexParser(pattern);
-        return p.parse();
+        return RegexCache.getDefault().get(pattern).getRegex();
     }
     
     public Regex<A> concat(Regex<A> that) {
@@ -39,6 +61,87 @@ public abstract class Regex<A> implements Cloneable {
         return new Star(this);
     }
 
+    /**
+     * Repetição limitada desta ER: de `min` a `max` ocorrências consecutivas.
+     *
+     * @param min número mínimo de ocorrências
+     * @param max número máximo de ocorrências, ou `Repeat.UNBOUNDED`
+     * @return a ER `this{min,max}`
+     * @see Repeat
+     */
+    public Regex<A> repeat(int min, int max) {
+        return new Repeat<>(this, min, max);
+    }
+
+    /**
+     * Converte esta expressão regular em um AFN-ε equivalente, pela
+     * construção de Thompson. As transições das classes de caracteres são
+     * rotuladas com os representantes dos blocos da `CharPartition` desta ER;
+     * a cadeia de entrada deve ser traduzida por `CharPartition.translate`.
+     *
+     * @return um AFN-ε que reconhece a mesma linguagem que esta ER
+     * @throws IllegalArgumentException se a ER tem uma repetição cuja forma
+     * expandida excede `Repeat.MAX_AUTOMATON_UNROLLED_SIZE` nós; nesse caso,
+     * use `accepts` ou `endPositions`, que não expandem as repetições de um
+     * único símbolo
+     * @see ThompsonCompiler
+     */
+    public Enfa<Integer, A> toEnfa() {
+        return ThompsonCompiler.compile(this);
+    }
+
+    /**
+     * Converte esta expressão regular em um AFN sem transições ε, pela
+     * construção de Glushkov (um estado por ocorrência de símbolo, mais o
+     * estado inicial). As transições das classes de caracteres são rotuladas
+     * como em `toEnfa`.
+     *
+     * @return um AFN que reconhece a mesma linguagem que esta ER
+     * @throws IllegalArgumentException se a ER tem uma repetição cuja forma
+     * expandida excede `Repeat.MAX_AUTOMATON_UNROLLED_SIZE` nós
+     * @see GlushkovCompiler
+     */
+    public Nfa<Integer, A> toNfa() {
+        return GlushkovCompiler.compile(this);
+    }
+
+    /**
+     * Retorna o conjunto das posições `j` tais que o trecho `w[start..j)` da
+     * cadeia de entrada é reconhecido por esta ER. O cálculo é feito pela
+     * {@link PikeVm}, em tempo O(n·m), onde `n` é o tamanho da cadeia e `m` o
+     * tamanho da ER; o programa é compilado na primeira chamada e reutilizado
+     * nas seguintes.
+     *
+     * @param w cadeia de entrada
+     * @param start posição inicial do reconhecimento
+     * @return as posições finais dos reconhecimentos a partir de `start`
+     */
+    public BitSet endPositions(List<A> w, int start) {
+        return program().endPositions(w, start);
+    }
+
+    /**
+     * Programa da `PikeVm` desta ER, compilado na primeira chamada. Como o
+     * programa é imutável, uma compilação repetida por <em>threads</em>
+     * concorrentes apenas desperdiça trabalho.
+     */
+    private PikeVm<A> program() {
+        PikeVm<A> vm = program;
+        if (vm == null) {
+            vm = PikeVm.compile(this);
+            program = vm;
+        }
+        return vm;
+    }
+
+    /**
+     * Guarda o programa `vm`, já compilado para esta ER, para que `accepts` e
+     * `endPositions` não o compilem de novo. Usado pelo `CompiledRegex`.
+     */
+    void setProgram(PikeVm<A> vm) {
+        program = vm;
+    }
+
     /**
      * Gera o conjunto com todas as correpondências entre a expressão regular e
      * a cadeia de entrada. O valor retornado e o conjunto contendo pares
@@ -50,26 +153,110 @@ public abstract class Regex<A> implements Cloneable {
      * de resposta é `(w1,w2)`, temos que ter `w1++w2 = w` (onde `++` está sendo
      * considerado como concatenação das cadeias).
      *
+     * Os <em>matches</em> são obtidos de `endPositions(w, 0)`.
+     *
      * @param w cadeia de entrada
      * @return o conjunto contendo todos as correspondências possíveis entre
      * esta expressão regular e a cadeia de entrada
      */
-    public abstract Set<Pair<List<A>, List<A>>> matches(List<A> w);
+    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
+        BitSet ends = endPositions(w, 0);
+        Set<Pair<List<A>, List<A>>> ms = new HashSet<>();
+        for (int j = ends.nextSetBit(0); j >= 0; j = ends.nextSetBit(j + 1)) {
+            ms.add(p(w.subList(0, j), w.subList(j, w.size())));
+        }
+        return ms;
+    }
+
+    /**
+     * Indica se esta expressão regular aceita a cadeia vazia.
+     *
+     * @return `true` se a cadeia vazia pertence à linguagem da ER
+     */
+    public abstract boolean isNullable();
+
+    /**
+     * Derivada de Brzozowski desta expressão regular em relação ao símbolo
+     * `x`: uma ER que aceita `w` se, e somente se, esta ER aceita `x w`. O
+     * resultado é construído com os construtores simplificadores
+     * (`simpleConcat`, `simpleUnion` e `simpleStar`), de modo que derivadas
+     * sucessivas não crescem indefinidamente.
+     *
+     * @param x um símbolo do alfabeto
+     * @return a derivada desta ER em relação a `x`
+     */
+    public Regex<A> derivative(A x) {
+        return derivative(x, RegexFactory.plain());
+    }
+
+    /**
+     * Derivada de Brzozowski desta expressão regular em relação ao símbolo
+     * `x`, construída pela fábrica `factory`. Se a fábrica faz
+     * <em>hash-consing</em>, derivadas iguais são a mesma instância.
+     *
+     * @param x um símbolo do alfabeto
+     * @param factory fábrica usada para construir a derivada
+     * @return a derivada desta ER em relação a `x`
+     */
+    public abstract Regex<A> derivative(A x, RegexFactory<A> factory);
+
+    /**
+     * Concatenação com simplificação: `∅·r = r·∅ = ∅`, `ε·r = r·ε = r`, e
+     * concatenações são associadas à direita.
+     *
+     * @param <A> tipo dos símbolos do alfabeto
+     * @param r1 primeira ER
+     * @param r2 segunda ER
+     * @return uma ER equivalente a `r1 r2`
+     * @see RegexFactory#concat(Regex, Regex)
+     */
+    public static <A> Regex<A> simpleConcat(Regex<A> r1, Regex<A> r2) {
+        return RegexFactory.<A>plain().concat(r1, r2);
+    }
+
+    /**
+     * União com simplificação: as alternativas são achatadas, `∅` é removido,
+     * alternativas repetidas são eliminadas e as restantes são postas em uma
+     * ordem fixa, associadas à direita. Assim, uniões que diferem apenas por
+     * associatividade, comutatividade ou idempotência resultam em ERs iguais.
+     *
+     * @param <A> tipo dos símbolos do alfabeto
+     * @param r1 primeira ER
+     * @param r2 segunda ER
+     * @return uma ER equivalente a `r1 | r2`
+     * @see RegexFactory#union(Regex, Regex)
+     */
+    public static <A> Regex<A> simpleUnion(Regex<A> r1, Regex<A> r2) {
+        return RegexFactory.<A>plain().union(r1, r2);
+    }
+
+    /**
+     * Fecho de Kleene com simplificação: `∅* = ε* = ε` e `r** = r*`.
+     *
+     * @param <A> tipo dos símbolos do alfabeto
+     * @param r a ER
+     * @return uma ER equivalente a `r*`
+     * @see RegexFactory#star(Regex)
+     */
+    public static <A> Regex<A> simpleStar(Regex<A> r) {
+        return RegexFactory.<A>plain().star(r);
+    }
 
     /**
      * Determina se esta expressão regular aceita a cadeia de entrada. Uma
      * expressão regular aceita a cadeia de entrada se a ER “consome” toda a
-     * cadeia de entrada.
+     * cadeia de entrada. A decisão é feita pela {@link PikeVm}, em tempo
+     * linear no tamanho da cadeia, com o mesmo programa usado por
+     * `endPositions`, compilado uma única vez para cada ER. Para decidir
+     * muitas cadeias com um AFD construído por derivadas, use um
+     * `DerivativeMatcher`.
      *
      * @param w cadia de entrada
      * @return Verdadeiro se a ER aceita a cadeia de entrada, e falso caso
      * contrário
+     * @see PikeVm#accepts(List)
      */
     public boolean accepts(List<A> w) {
-        Set<Pair<List<A>, List<A>>> ms = matches(w);
-        Set<Pair<List<A>, List<A>>> mss = ms.stream()
-                .filter(m -> m._2.isEmpty())
-                .collect(Collectors.toSet());
-        return mss.isEmpty();
+        return program().accepts(w);
     }
 }
@@ -0,0 +1,180 @@
+package ifes.flat.re;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de padrões compilados, limitado em tamanho e seguro para uso
+ * concorrente. O cache é dividido em `segments` segmentos, escolhidos pelo
+ * <em>hash</em> do padrão, cada um com a sua própria trava e com política LRU
+ * (o padrão usado há mais tempo é descartado quando o segmento está cheio).
+ * Assim, <em>threads</em> que consultam padrões diferentes raramente
+ * disputam a mesma trava, e não há nenhuma trava global.
+ *
+ * A compilação de um padrão ausente é feita fora da trava; se duas
+ * <em>threads</em> compilarem o mesmo padrão ao mesmo tempo, a primeira a
+ * inseri-lo prevalece. Os contadores de acertos, faltas e descartes usam
+ * `LongAdder`, e não são sincronizados entre si.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class RegexCache {
+
+    /**
+     * Capacidade do cache padrão, usado por `Regex.compile`.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private static final RegexCache DEFAULT = new RegexCache(DEFAULT_CAPACITY);
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Segmento do cache: um `LinkedHashMap` em ordem de acesso, protegido
+     * pela trava do próprio segmento.
+     */
+    private final class Segment extends LinkedHashMap<String, CompiledRegex> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledRegex> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Cria um cache com capacidade para `capacity` padrões, dividido em
+     * `segments` segmentos. O número de segmentos é arredondado para uma
+     * potência de 2, e a capacidade é repartida igualmente entre eles.
+     *
+     * @param capacity número máximo de padrões
+     * @param segments número de segmentos
+     */
+    public RegexCache(int capacity, int segments) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacity);
+        }
+        if (segments < 1) {
+            throw new IllegalArgumentException("Número de segmentos inválido: " + segments);
+        }
+        int n = Integer.highestOneBit(Math.min(segments, capacity));
+        int perSegment = (capacity + n - 1) / n;
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            this.segments[i] = new Segment(perSegment);
+        }
+        this.capacity = perSegment * n;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    public RegexCache(int capacity) {
+        this(capacity, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Cache compartilhado usado por `Regex.compile`.
+     *
+     * @return o cache padrão
+     */
+    public static RegexCache getDefault() {
+        return DEFAULT;
+    }
+
+    private Segment segmentFor(String pattern) {
+        int h = pattern.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * Retorna o padrão compilado correspondente a `pattern`, compilando-o se
+     * ele não está no cache.
+     *
+     * @param pattern texto do padrão, na sintaxe do `RegexParser`
+     * @return o padrão compilado
+     * @throws IllegalArgumentException se o padrão é inválido
+     */
+    public CompiledRegex get(String pattern) {
+        Segment seg = segmentFor(pattern);
+        CompiledRegex cr;
+        synchronized (seg) {
+            cr = seg.get(pattern);
+        }
+        if (cr != null) {
+            hits.increment();
+            return cr;
+        }
+        misses.increment();
+        CompiledRegex fresh = new CompiledRegex(pattern);
+        synchronized (seg) {
+            cr = seg.putIfAbsent(pattern, fresh);
+        }
+        return (cr != null) ? cr : fresh;
+    }
+
+    /**
+     * Descarta todos os padrões do cache. Os contadores não são zerados.
+     */
+    public void clear() {
+        for (Segment seg : segments) {
+            synchronized (seg) {
+                seg.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (Segment seg : segments) {
+            synchronized (seg) {
+                n += seg.size();
+            }
+        }
+        return n;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RegexCache{" + "capacity=" + capacity + ", size=" + size()
+                + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + '}';
+    }
+
+}
@@ -0,0 +1,402 @@
+package ifes.flat.re;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fábrica de expressões regulares com <em>hash-consing</em>: ERs
+ * estruturalmente iguais construídas pela mesma fábrica são representadas por
+ * uma única instância. Como os filhos de cada nó também são compartilhados,
+ * a comparação de dois nós é resolvida pela identidade dos filhos, e o
+ * <em>hash</em> de `Concat`, `Union` e `Star` é calculado uma única vez, na
+ * construção. Isso reduz a memória usada por padrões grandes e faz com que
+ * caches indexados por ERs (derivadas, autômatos compilados) encontrem as
+ * entradas já calculadas.
+ *
+ * Os construtores aplicam as identidades usuais:
+ *
+ * <ul>
+ * <li>`∅·r = r·∅ = ∅` e `ε·r = r·ε = r`; concatenações são associadas à
+ * direita;</li>
+ * <li>`∅|r = r|∅ = r` e `r|r = r`; as alternativas de uma união são
+ * achatadas e postas em uma ordem fixa, de modo que uniões que diferem apenas
+ * por associatividade ou comutatividade resultam na mesma ER;</li>
+ * <li>`∅* = ε* = ε` e `r** = r*`;</li>
+ * <li>`r{0,0} = ε`, `r{1,1} = r`, `r{0,} = r*`, `∅{0,n} = ε`,
+ * `∅{m,n} = ∅` para `m > 0`, `ε{m,n} = ε` e `(r*){m,n} = r*`.</li>
+ * </ul>
+ *
+ * Cada nó da tabela recebe um número de sequência, na ordem de criação, que
+ * desempata a ordem das alternativas de uma união com o mesmo <em>hash</em>
+ * sem percorrer as ERs. A fábrica sem <em>hash-consing</em> não numera os
+ * nós; nela, alternativas distintas com o mesmo <em>hash</em> ficam na ordem
+ * em que aparecem.
+ *
+ * A fábrica pode ser usada concorrentemente por várias <em>threads</em>. As
+ * ERs recebidas como argumento que não foram construídas pela fábrica são
+ * antes normalizadas com `normalize`.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class RegexFactory<A> {
+
+    private static final RegexFactory<Object> PLAIN = new RegexFactory<>(false);
+
+    private final boolean hashConsing;
+    private final ConcurrentMap<Regex<A>, Interned<A>> table;
+    private final AtomicInteger counter;
+    private final Regex<A> nothing;
+    private final Regex<A> empty;
+
+    /**
+     * Cria uma fábrica com <em>hash-consing</em>.
+     */
+    public RegexFactory() {
+        this(true);
+    }
+
+    private RegexFactory(boolean hashConsing) {
+        this.hashConsing = hashConsing;
+        this.table = hashConsing ? new ConcurrentHashMap<>() : null;
+        this.counter = new AtomicInteger();
+        this.nothing = node(new Nothing<>());
+        this.empty = node(new Empty<>());
+    }
+
+    /**
+     * Fábrica sem <em>hash-consing</em>, que apenas aplica as identidades. É
+     * a fábrica usada por `Regex.simpleConcat`, `simpleUnion` e `simpleStar`.
+     *
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @return a fábrica compartilhada sem <em>hash-consing</em>
+     */
+    @SuppressWarnings("unchecked")
+    public static <A> RegexFactory<A> plain() {
+        return (RegexFactory<A>) PLAIN;
+    }
+
+    public boolean isHashConsing() {
+        return hashConsing;
+    }
+
+    /**
+     * Número de nós distintos construídos pela fábrica.
+     *
+     * @return o tamanho da tabela de nós, ou `0` se a fábrica não faz
+     * <em>hash-consing</em>
+     */
+    public int size() {
+        return hashConsing ? table.size() : 0;
+    }
+
+    /**
+     * Entrada da tabela de nós: a instância compartilhada e o seu número de
+     * sequência.
+     */
+    private static final class Interned<A> {
+
+        final Regex<A> node;
+        final int seq;
+
+        Interned(Regex<A> node, int seq) {
+            this.node = node;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * Retorna a instância compartilhada do nó `r`, cujos filhos já foram
+     * construídos pela fábrica.
+     */
+    private Regex<A> node(Regex<A> r) {
+        if (!hashConsing) {
+            return r;
+        }
+        return table.computeIfAbsent(r, k -> new Interned<>(k, counter.getAndIncrement())).node;
+    }
+
+    /**
+     * Indica se `r` é uma instância construída pela fábrica.
+     */
+    private boolean isOwned(Regex<A> r) {
+        Interned<A> e = table.get(r);
+        return e != null && e.node == r;
+    }
+
+    /**
+     * Número de sequência do nó `r`, construído pela fábrica; `0` se a
+     * fábrica não faz <em>hash-consing</em>.
+     */
+    private int seq(Regex<A> r) {
+        return hashConsing ? table.get(r).seq : 0;
+    }
+
+    /**
+     * Retorna `r` se ela já foi construída pela fábrica, ou a sua forma
+     * normalizada caso contrário.
+     */
+    private Regex<A> own(Regex<A> r) {
+        if (!hashConsing || isOwned(r)) {
+            return r;
+        }
+        return normalize(r);
+    }
+
+    public Regex<A> nothing() {
+        return nothing;
+    }
+
+    public Regex<A> empty() {
+        return empty;
+    }
+
+    public Regex<A> literal(A x) {
+        return node(new Literal<>(x));
+    }
+
+    /**
+     * Concatenação normalizada.
+     *
+     * @param r1 primeira ER
+     * @param r2 segunda ER
+     * @return uma ER equivalente a `r1 r2`
+     */
+    public Regex<A> concat(Regex<A> r1, Regex<A> r2) {
+        if (r1 instanceof Nothing || r2 instanceof Nothing) {
+            return nothing;
+        }
+        r2 = own(r2);
+        // Fatores de `r1`, da esquerda para a direita.
+        List<Regex<A>> factors = new ArrayList<>();
+        Deque<Regex<A>> stack = new ArrayDeque<>();
+        stack.push(own(r1));
+        while (!stack.isEmpty()) {
+            Regex<A> r = stack.pop();
+            if (r instanceof Concat) {
+                stack.push(((Concat<A>) r).re2);
+                stack.push(((Concat<A>) r).re1);
+            } else if (r instanceof Nothing) {
+                return nothing;
+            } else if (!(r instanceof Empty)) {
+                factors.add(r);
+            }
+        }
+        Regex<A> result = r2;
+        for (int i = factors.size() - 1; i >= 0; i--) {
+            result = (result instanceof Empty)
+                    ? factors.get(i)
+                    : node(new Concat<>(factors.get(i), result));
+        }
+        return result;
+    }
+
+    /**
+     * União normalizada.
+     *
+     * @param r1 primeira ER
+     * @param r2 segunda ER
+     * @return uma ER equivalente a `r1 | r2`
+     */
+    public Regex<A> union(Regex<A> r1, Regex<A> r2) {
+        return union(List.of(r1, r2));
+    }
+
+    /**
+     * União normalizada de uma lista de alternativas.
+     *
+     * @param rs as alternativas
+     * @return uma ER equivalente à união das ERs de `rs`
+     */
+    public Regex<A> union(List<Regex<A>> rs) {
+        Set<Regex<A>> alts = new LinkedHashSet<>();
+        Deque<Regex<A>> stack = new ArrayDeque<>();
+        for (int i = rs.size() - 1; i >= 0; i--) {
+            stack.push(own(rs.get(i)));
+        }
+        while (!stack.isEmpty()) {
+            Regex<A> r = stack.pop();
+            if (r instanceof Union) {
+                stack.push(((Union<A>) r).re2);
+                stack.push(((Union<A>) r).re1);
+            } else if (!(r instanceof Nothing)) {
+                alts.add(r);
+            }
+        }
+        if (alts.isEmpty()) {
+            return nothing;
+        }
+        List<Regex<A>> sorted = new ArrayList<>(alts);
+        sorted.sort(Comparator.<Regex<A>>comparingInt(Object::hashCode)
+                .thenComparingInt(this::seq));
+        Regex<A> result = sorted.get(sorted.size() - 1);
+        for (int i = sorted.size() - 2; i >= 0; i--) {
+            result = node(new Union<>(sorted.get(i), result));
+        }
+        return result;
+    }
+
+    /**
+     * Fecho de Kleene normalizado.
+     *
+     * @param r a ER
+     * @return uma ER equivalente a `r*`
+     */
+    public Regex<A> star(Regex<A> r) {
+        if (r instanceof Nothing || r instanceof Empty) {
+            return empty;
+        } else if (r instanceof Star) {
+            return own(r);
+        }
+        return node(new Star<>(own(r)));
+    }
+
+    /**
+     * Repetição limitada normalizada.
+     *
+     * @param r a ER
+     * @param min número mínimo de ocorrências
+     * @param max número máximo de ocorrências, ou `Repeat.UNBOUNDED`
+     * @return uma ER equivalente a `r{min,max}`
+     * @throws IllegalArgumentException se os limites são inválidos
+     */
+    public Regex<A> repeat(Regex<A> r, int min, int max) {
+        if (min < 0 || (max != Repeat.UNBOUNDED && max < min)) {
+            throw new IllegalArgumentException(String.format(
+                    "Limites de repetição inválidos: {%d,%d}.", min, max));
+        }
+        if (r instanceof Nothing) {
+            return (min == 0) ? empty : nothing;
+        } else if (r instanceof Empty || max == 0) {
+            return empty;
+        } else if (min == 1 && max == 1) {
+            return own(r);
+        } else if (r instanceof Star || (min == 0 && max == Repeat.UNBOUNDED)) {
+            return star(r);
+        }
+        return node(new Repeat<>(own(r), min, max));
+    }
+
+    /**
+     * Item da pilha de `normalize`: um nó a visitar (`count < 0`) ou um nó
+     * cujos `count` filhos já foram normalizados.
+     */
+    private static final class Frame<A> {
+
+        final Regex<A> node;
+        final int count;
+
+        Frame(Regex<A> node, int count) {
+            this.node = node;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Reconstrói `re` com os construtores da fábrica. O percurso é iterativo,
+     * e cadeias de concatenações ou de uniões são tratadas de uma só vez, de
+     * modo que ERs muito profundas (como as produzidas pelo `RegexParser` para
+     * cadeias longas) são normalizadas em tempo linear.
+     *
+     * @param re a expressão regular
+     * @return uma ER equivalente a `re`, construída pela fábrica
+     * @throws IllegalArgumentException se `re` contém um tipo de nó
+     * desconhecido
+     */
+    public Regex<A> normalize(Regex<A> re) {
+        Deque<Frame<A>> work = new ArrayDeque<>();
+        Deque<Regex<A>> done = new ArrayDeque<>();
+        work.push(new Frame<>(re, -1));
+        while (!work.isEmpty()) {
+            Frame<A> fr = work.pop();
+            Regex<A> node = fr.node;
+            if (fr.count < 0) {
+                if (hashConsing && isOwned(node)) {
+                    done.push(node);
+                } else if (node instanceof Concat || node instanceof Union) {
+                    List<Regex<A>> parts = parts(node);
+                    work.push(new Frame<>(node, parts.size()));
+                    for (int i = parts.size() - 1; i >= 0; i--) {
+                        work.push(new Frame<>(parts.get(i), -1));
+                    }
+                } else if (node instanceof Star) {
+                    work.push(new Frame<>(node, 1));
+                    work.push(new Frame<>(((Star<A>) node).re, -1));
+                } else if (node instanceof Repeat) {
+                    work.push(new Frame<>(node, 1));
+                    work.push(new Frame<>(((Repeat<A>) node).re, -1));
+                } else if (node instanceof Literal) {
+                    done.push(literal(((Literal<A>) node).symbol));
+                } else if (node instanceof CharClass) {
+                    done.push(node(node));
+                } else if (node instanceof Empty) {
+                    done.push(empty);
+                } else if (node instanceof Nothing) {
+                    done.push(nothing);
+                } else {
+                    throw new IllegalArgumentException("Tipo de expressão regular desconhecido: "
+                            + node.getClass().getName());
+                }
+            } else {
+                // Os filhos normalizados estão no topo, o último primeiro.
+                List<Regex<A>> kids = new ArrayList<>(fr.count);
+                for (int i = 0; i < fr.count; i++) {
+                    kids.add(done.pop());
+                }
+                if (node instanceof Concat) {
+                    Regex<A> r = kids.get(0);
+                    for (int i = 1; i < kids.size(); i++) {
+                        r = concat(kids.get(i), r);
+                    }
+                    done.push(r);
+                } else if (node instanceof Union) {
+                    done.push(union(kids));
+                } else if (node instanceof Repeat) {
+                    Repeat<A> r = (Repeat<A>) node;
+                    done.push(repeat(kids.get(0), r.min, r.max));
+                } else {
+                    done.push(star(kids.get(0)));
+                }
+            }
+        }
+        return done.pop();
+    }
+
+    /**
+     * Fatores de uma cadeia de concatenações, ou alternativas de uma cadeia de
+     * uniões, da esquerda para a direita.
+     */
+    static <A> List<Regex<A>> parts(Regex<A> node) {
+        Class<?> kind = node.getClass();
+        List<Regex<A>> parts = new ArrayList<>();
+        Deque<Regex<A>> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Regex<A> r = stack.pop();
+            if (r.getClass() != kind) {
+                parts.add(r);
+            } else if (r instanceof Concat) {
+                stack.push(((Concat<A>) r).re2);
+                stack.push(((Concat<A>) r).re1);
+            } else {
+                stack.push(((Union<A>) r).re2);
+                stack.push(((Union<A>) r).re1);
+            }
+        }
+        return parts;
+    }
+
+    @Override
+    public String toString() {
+        return "RegexFactory{" + "hashConsing=" + hashConsing + ", size=" + size() + '}';
+    }
+
+}
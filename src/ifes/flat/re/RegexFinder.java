@@ -0,0 +1,330 @@
+package ifes.flat.re;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Busca de um padrão em fluxos de caracteres (`Reader`, `InputStream` ou
+ * `ReadableByteChannel`), sem carregar a entrada inteira em memória. A
+ * entrada é lida em blocos de `chunkSize` caracteres, e o estado da busca
+ * (a lista de <em>threads</em> da `PikeVm`) é mantido de um bloco para o
+ * seguinte.
+ *
+ * A busca não é ancorada e informa, como `CharMatcher.find`, o
+ * reconhecimento mais à esquerda e, entre os que começam na mesma posição, o
+ * mais longo; a busca seguinte recomeça no fim desse reconhecimento, de modo
+ * que os reconhecimentos informados não se sobrepõem e estão em ordem
+ * crescente. Reconhecimentos vazios não são informados. Enquanto nenhum
+ * reconhecimento foi encontrado, uma nova <em>thread</em> é iniciada em cada
+ * posição da entrada, guardando a posição em que começou. Depois que uma
+ * <em>thread</em> chega ao fim do programa, nenhuma nova <em>thread</em> é
+ * iniciada e só continuam as que começaram até o início do melhor
+ * reconhecimento; quando não resta nenhuma, o reconhecimento é informado.
+ * Os caracteres lidos depois do fim do melhor reconhecimento, enquanto se
+ * tenta estendê-lo, são guardados e relidos pela busca seguinte. Para que
+ * nenhum trecho da entrada seja guardado ou relido sem limite, a extensão é
+ * tentada por no máximo `maxLookahead` caracteres: se, depois deles, ainda há
+ * <em>threads</em> ativas mas nenhum reconhecimento mais longo, o melhor
+ * reconhecimento encontrado até ali é informado. Assim, um reconhecimento só
+ * deixa de ser o mais longo se a sua extensão termina mais de `maxLookahead`
+ * caracteres depois do fim de um reconhecimento mais curto com o mesmo
+ * início; a memória usada é proporcional a `chunkSize + maxLookahead`, e cada
+ * caractere é lido no máximo `maxLookahead + 1` vezes.
+ *
+ * Se o padrão tem um literal obrigatório que limita as posições de início
+ * dos reconhecimentos (veja `LiteralPrefilter.canSkip`), sempre que não há
+ * nenhuma <em>thread</em> ativa a busca localiza no bloco a próxima
+ * ocorrência do literal e salta diretamente para a primeira posição em que um
+ * reconhecimento pode começar, sem executar o autômato sobre a região
+ * intermediária.
+ *
+ * As posições são contadas em caracteres a partir do início do fluxo. Os
+ * objetos são imutáveis, e uma mesma instância pode ser usada em buscas
+ * simultâneas.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class RegexFinder {
+
+    /**
+     * Tamanho padrão dos blocos de leitura, em caracteres.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /**
+     * Número máximo padrão de caracteres lidos, depois do fim de um
+     * reconhecimento, na tentativa de estendê-lo.
+     */
+    public static final int DEFAULT_MAX_LOOKAHEAD = 8192;
+
+    /**
+     * Receptor dos reconhecimentos encontrados.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+
+        /**
+         * Chamado para cada reconhecimento `[start, end)` encontrado.
+         *
+         * @param start posição inicial do reconhecimento
+         * @param end posição final (exclusiva) do reconhecimento
+         * @return `true` para continuar a busca, `false` para interrompê-la
+         */
+        boolean onMatch(long start, long end);
+    }
+
+    private final CharMatcher matcher;
+    private final int chunkSize;
+    private final int maxLookahead;
+
+    /**
+     * Cria um buscador para o programa `matcher`.
+     *
+     * @param matcher programa da ER
+     * @param chunkSize tamanho dos blocos de leitura, em caracteres
+     * @param maxLookahead número máximo de caracteres lidos, depois do fim de
+     * um reconhecimento, na tentativa de estendê-lo
+     * @throws IllegalArgumentException se `chunkSize` é menor que `1` ou
+     * `maxLookahead` é negativo
+     */
+    public RegexFinder(CharMatcher matcher, int chunkSize, int maxLookahead) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Tamanho de bloco inválido: " + chunkSize);
+        }
+        if (maxLookahead < 0) {
+            throw new IllegalArgumentException("Limite de leitura adiante inválido: " + maxLookahead);
+        }
+        this.matcher = matcher;
+        this.chunkSize = chunkSize;
+        this.maxLookahead = maxLookahead;
+    }
+
+    public RegexFinder(CharMatcher matcher, int chunkSize) {
+        this(matcher, chunkSize, DEFAULT_MAX_LOOKAHEAD);
+    }
+
+    public RegexFinder(PikeVm<Character> program, int chunkSize) {
+        this(new CharMatcher(program), chunkSize);
+    }
+
+    public RegexFinder(CompiledRegex cr) {
+        this(cr.getCharMatcher(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public RegexFinder(String pattern) {
+        this(RegexCache.getDefault().get(pattern));
+    }
+
+    public CharMatcher getMatcher() {
+        return matcher;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getMaxLookahead() {
+        return maxLookahead;
+    }
+
+    /**
+     * Caracteres da entrada: os do bloco corrente, precedidos dos que foram
+     * devolvidos por `unread` para serem relidos.
+     */
+    private static final class Source {
+
+        final Reader in;
+        final char[] chunk;
+        char[] buf;
+        int i = 0;
+        int n = 0;
+        boolean eof = false;
+
+        Source(Reader in, int chunkSize) {
+            this.in = in;
+            this.chunk = new char[chunkSize];
+            this.buf = chunk;
+        }
+
+        int read() throws IOException {
+            while (i == n) {
+                if (eof) {
+                    return -1;
+                }
+                int k = in.read(chunk);
+                if (k < 0) {
+                    eof = true;
+                    return -1;
+                }
+                buf = chunk;
+                i = 0;
+                n = k;
+            }
+            return buf[i++];
+        }
+
+        /**
+         * Número de caracteres disponíveis sem uma nova leitura.
+         */
+        int available() {
+            return n - i;
+        }
+
+        void skip(int k) {
+            i += k;
+        }
+
+        /**
+         * Posição da próxima ocorrência do literal de `pf` entre os
+         * caracteres disponíveis, relativa ao próximo caractere, ou `-1`.
+         */
+        int indexOf(LiteralPrefilter pf) {
+            return pf.indexOf(CharBuffer.wrap(buf, i, n - i), 0);
+        }
+
+        /**
+         * Devolve os últimos caracteres lidos, `cs`, para serem relidos. Se
+         * eles ainda estão no bloco corrente, basta recuar a posição de
+         * leitura.
+         */
+        void unread(CharSequence cs) {
+            int k = cs.length();
+            if (k <= i) {
+                i -= k;
+                return;
+            }
+            char[] nb = new char[k + n - i];
+            for (int j = 0; j < k; j++) {
+                nb[j] = cs.charAt(j);
+            }
+            System.arraycopy(buf, i, nb, k, n - i);
+            buf = nb;
+            i = 0;
+            n = nb.length;
+        }
+    }
+
+    /**
+     * Busca o padrão nos caracteres lidos de `in`, informando os
+     * reconhecimentos a `handler` à medida que são encontrados.
+     *
+     * @param in fluxo de entrada; não é fechado ao final
+     * @param handler receptor dos reconhecimentos
+     * @return o número de reconhecimentos informados
+     * @throws IOException se ocorrer um erro de leitura
+     */
+    public long find(Reader in, MatchHandler handler) throws IOException {
+        LiteralPrefilter pf = matcher.getPrefilter();
+        boolean skip = pf != null && pf.canSkip();
+        Source src = new Source(in, chunkSize);
+        // Listas de threads da busca, as mesmas usadas por `CharMatcher.find`.
+        CharMatcher.Threads st = matcher.new Threads(0);
+        // Caracteres lidos depois do fim do melhor reconhecimento.
+        StringBuilder tail = new StringBuilder();
+        long bestStart = -1;
+        long bestEnd = -1;
+        // Próxima ocorrência do literal, ou um limite inferior para ela.
+        long occ = -1;
+        long pos = 0;
+        long count = 0;
+        st.restart(0);
+        while (true) {
+            long ms = st.matchStart();
+            // Reconhecimentos vazios (iniciados em `pos`) não são informados.
+            if (ms >= 0 && ms < pos && (bestStart < 0 || ms <= bestStart)) {
+                if (ms != bestStart) {
+                    st.retainStartsUpTo(ms);
+                }
+                bestStart = ms;
+                bestEnd = pos;
+                tail.setLength(0);
+            }
+            // Depois de um reconhecimento, lê enquanto ele ainda pode ser
+            // estendido, mas no máximo `maxLookahead` caracteres.
+            boolean extend = st.csize > 0 && tail.length() < maxLookahead;
+            int c = (bestStart < 0 || extend) ? src.read() : -1;
+            if (c < 0) {
+                if (bestStart < 0) {
+                    return count;
+                }
+                count += 1;
+                if (!handler.onMatch(bestStart, bestEnd)) {
+                    return count;
+                }
+                // A busca seguinte recomeça no fim do reconhecimento.
+                src.unread(tail);
+                tail.setLength(0);
+                pos = bestEnd;
+                bestStart = -1;
+                st.restart(pos);
+                continue;
+            }
+            if (bestStart >= 0) {
+                tail.append((char) c);
+            }
+            // Depois de um reconhecimento, só interessam as threads que
+            // começaram até ele, e nenhuma nova thread é iniciada.
+            st.step((char) c, (bestStart >= 0) ? bestStart : Long.MAX_VALUE);
+            boolean idle = st.nsize == 0;
+            if (bestStart < 0) {
+                st.add(0, pos + 1);
+            }
+            st.swap();
+            pos += 1;
+            if (idle && skip && bestStart < 0) {
+                if (occ < pos) {
+                    int k = src.indexOf(pf);
+                    // Uma ocorrência pode continuar no bloco seguinte.
+                    occ = pos + ((k >= 0) ? k
+                            : Math.max(0, src.available() - pf.getLiteral().length() + 1));
+                }
+                long next = Math.min(Math.max(pos, pf.startBound(occ)), pos + src.available());
+                if (next > pos) {
+                    src.skip((int) (next - pos));
+                    pos = next;
+                    st.restart(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca o padrão nos caracteres lidos de `in`, decodificados com `cs`.
+     *
+     * @param in fluxo de entrada; não é fechado ao final
+     * @param cs codificação dos caracteres
+     * @param handler receptor dos reconhecimentos
+     * @return o número de reconhecimentos informados
+     * @throws IOException se ocorrer um erro de leitura
+     */
+    public long find(InputStream in, Charset cs, MatchHandler handler) throws IOException {
+        return find(new InputStreamReader(in, cs), handler);
+    }
+
+    /**
+     * Busca o padrão nos caracteres lidos do canal `ch`, decodificados com
+     * `cs`.
+     *
+     * @param ch canal de entrada; não é fechado ao final
+     * @param cs codificação dos caracteres
+     * @param handler receptor dos reconhecimentos
+     * @return o número de reconhecimentos informados
+     * @throws IOException se ocorrer um erro de leitura
+     */
+    public long find(ReadableByteChannel ch, Charset cs, MatchHandler handler) throws IOException {
+        return find(Channels.newReader(ch, cs.newDecoder(), -1), handler);
+    }
+
+    @Override
+    public String toString() {
+        return "RegexFinder{" + "matcher=" + matcher + ", chunkSize=" + chunkSize
+                + ", maxLookahead=" + maxLookahead + '}';
+    }
+
+}
@@ -20,12 +20,23 @@ public class RegexParser {
      * Sintaxe em EBNF:
      * <regexp> ::= <union>
      * <union> ::= <concat> {'|' <concat>}
-     * <concat> ::= <star> {<star>}
-     * <star> ::= <atom> ['*']
-     * <atom> ::= <nothing> | <empty> | <char> | '(' <regexp> ')'
+     * <concat> ::= <postfix> {<postfix>}
+     * <postfix> ::= <atom> {'*' | '+' | '?' | <bounds>}
+     * <bounds> ::= '{' <int> '}' | '{' <int> ',' '}' | '{' <int> ',' <int> '}'
+     * <atom> ::= <nothing> | <empty> | <char> | <class> | '.' | '(' <regexp> ')'
      * <nothing> ::= '\0'
      * <empty> ::= '\e'
-     * <char> ::= '\\' | '\(' | '\)' | '\*' | '\|' | "caracteres..."
+     * <char> ::= '\' <meta> | "caracteres..."
+     * <meta> ::= '\' | '(' | ')' | '*' | '|' | '+' | '?' | '[' | ']' | '.' | '-' | '^'
+     *          | '{' | '}'
+     * <class> ::= '[' ['^'] <item> {<item>} ']'
+     * <item> ::= <cchar> ['-' <cchar>]
+     * <cchar> ::= '\' <meta> | "caracteres exceto ']'"
+     *
+     * `r+` é a repetição `r{1,}`, `r?` equivale a `r | ε`, e `.` reconhece
+     * qualquer caractere. Classes e intervalos são representados por
+     * `CharClass`. `r+`, `r{m}`, `r{m,}` e `r{m,n}` são repetições (`Repeat`),
+     * que não são expandidas em cópias de `r`.
      *
      * @return
      */
@@ -34,6 +45,26 @@ public class RegexParser {
         return regexp();
     }
 
+    /**
+     * Analisa a entrada como `parse`, mas exige que ela seja uma ER completa:
+     * a entrada não pode ser vazia e tem de ser consumida por inteiro.
+     *
+     * @return a ER correspondente à entrada
+     * @throws IllegalArgumentException se a entrada é vazia ou se sobram
+     * caracteres depois da ER
+     */
+    public Regex<Character> parseAll() {
+        Regex<Character> re = parse();
+        if (re == null && input.isEmpty()) {
+            throw new IllegalArgumentException("Invalid input at 0. Empty pattern.");
+        } else if (re == null || index < input.length()) {
+            String found = (index < input.length()) ? String.valueOf(input.charAt(index)) : "end of input";
+            String msg = String.format("Invalid input at %d. Unexpected: %s.", index, found);
+            throw new IllegalArgumentException(msg);
+        }
+        return re;
+    }
+
     private Regex<Character> regexp() {
         return union();
     }
@@ -41,34 +72,57 @@ public class RegexParser {
     private Regex<Character> union() {
         var r1 = concat();
         while (match("|")) {
+            if (r1 == null) {
+                String msg = String.format("Invalid input at %d. Empty alternative.", index);
+                throw new IllegalArgumentException(msg);
+            }
             index += 1;
             var r2 = concat();
+            if (r2 == null) {
+                String msg = String.format("Invalid input at %d. Empty alternative.", index);
+                throw new IllegalArgumentException(msg);
+            }
             r1 = r1.union(r2);
         }
         return r1;
     }
 
     private Regex<Character> concat() {
-        var r1 = star();
+        var r1 = postfix();
         if (r1 != null) {
-            var r2 = star();
+            var r2 = postfix();
             while (r2 != null) {
                 r1 = r1.concat(r2);
-                r2 = star();
+                r2 = postfix();
             }
         }
         return r1;
     }
 
-    private Regex<Character> star() {
+    private Regex<Character> postfix() {
         var r1 = atom();
-        if (r1 != null && match("*")) {
-            r1 = r1.star();
+        while (r1 != null) {
+            if (match("*")) {
+                r1 = r1.star();
+            } else if (match("+")) {
+                r1 = r1.repeat(1, Repeat.UNBOUNDED);
+            } else if (match("?")) {
+                r1 = r1.union(Regex.empty());
+            } else if (match("{")) {
+                r1 = bounds(r1);
+                continue;
+            } else {
+                break;
+            }
             index += 1;
         }
         return r1;
     }
 
+    private static boolean isMeta(char c) {
+        return "\\()*|+?[].-^{}".indexOf(c) >= 0;
+    }
+
     private Regex<Character> atom() {
         Regex<Character> re = null;
         if (match("\\")) {
@@ -79,36 +133,34 @@ public class RegexParser {
             } else if (match("e")) {
                 re = new Empty<>();
                 index += 1;
-            } else if (match("\\")) {
-                re = new Literal('\\');
-                index += 1;
-            } else if (match("(")) {
-                re = new Literal('(');
-                index += 1;
-            } else if (match(")")) {
-                re = new Literal(')');
-                index += 1;
-            } else if (match(")")) {
-                re = new Literal(')');
-                index += 1;
-            } else if (match("*")) {
-                re = new Literal('*');
-                index += 2;
-            } else if (match("|")) {
-                re = new Literal('|');
+            } else if (index < input.length() && isMeta(input.charAt(index))) {
+                re = new Literal<>(input.charAt(index));
                 index += 1;
             } else {
+                // Escape inválido: a análise para na barra.
+                index -= 1;
                 re = null;
             }
         } else if (match("(")) {
             index += 1;
             re = regexp();
+            if (re == null) {
+                String msg = String.format("Invalid input at %d. Empty group.", index);
+                throw new IllegalArgumentException(msg);
+            }
             expect(")");
-        } else if (match(")") || match("*") || match("|")) {
+        } else if (match("[")) {
+            index += 1;
+            re = charClass();
+        } else if (match(".")) {
+            index += 1;
+            re = CharClass.any();
+        } else if (match(")") || match("*") || match("|") || match("+") || match("?")
+                || match("{")) {
             re = null;
         } else if (index < input.length()) {
             Character c = input.charAt(index);
-            re = new Literal(c);
+            re = new Literal<>(c);
             index += 1;
         } else {
             //throw new IndexOutOfBoundsException(index);
@@ -117,6 +169,82 @@ public class RegexParser {
         return re;
     }
 
+    private Regex<Character> bounds(Regex<Character> re) {
+        int pos = index;
+        index += 1;
+        int min = number(pos);
+        int max = min;
+        if (match(",")) {
+            index += 1;
+            max = match("}") ? Repeat.UNBOUNDED : number(pos);
+        }
+        if (!match("}")) {
+            String msg = String.format("Invalid repetition at %d.", pos);
+            throw new IllegalArgumentException(msg);
+        }
+        index += 1;
+        if (max != Repeat.UNBOUNDED && max < min) {
+            String msg = String.format("Invalid bounds at %d: {%d,%d}.", pos, min, max);
+            throw new IllegalArgumentException(msg);
+        }
+        return re.repeat(min, max);
+    }
+
+    private int number(int pos) {
+        int begin = index;
+        while (index < input.length() && Character.isDigit(input.charAt(index))) {
+            index += 1;
+        }
+        try {
+            return Integer.parseInt(input.substring(begin, index));
+        } catch (NumberFormatException e) {
+            String msg = String.format("Invalid repetition at %d.", pos);
+            throw new IllegalArgumentException(msg, e);
+        }
+    }
+
+    private CharClass charClass() {
+        boolean negated = false;
+        if (match("^")) {
+            negated = true;
+            index += 1;
+        }
+        StringBuilder ranges = new StringBuilder();
+        do {
+            char a = classChar();
+            char b = a;
+            if (match("-") && !match("-]")) {
+                index += 1;
+                b = classChar();
+                if (b < a) {
+                    String msg = String.format("Invalid range at %d: %c-%c.", index, a, b);
+                    throw new IllegalArgumentException(msg);
+                }
+            }
+            ranges.append(a).append(b);
+        } while (!match("]"));
+        index += 1;
+        CharClass cc = CharClass.of(ranges.toString().toCharArray());
+        return negated ? cc.negate() : cc;
+    }
+
+    private char classChar() {
+        if (index >= input.length()) {
+            String msg = String.format("Invalid input at %d. Unterminated character class.", index);
+            throw new IllegalArgumentException(msg);
+        }
+        char c = input.charAt(index);
+        if (c == '\\' && index + 1 < input.length() && isMeta(input.charAt(index + 1))) {
+            c = input.charAt(index + 1);
+            index += 1;
+        } else if (c == ']') {
+            String msg = String.format("Invalid input at %d. Empty character class.", index);
+            throw new IllegalArgumentException(msg);
+        }
+        index += 1;
+        return c;
+    }
+
     private boolean match(String text) {
         return index < input.length()
                 && input.substring(index).startsWith(text);
@@ -0,0 +1,398 @@
+package ifes.flat.re;
+
+import ifes.flat.rl.LazyDfa;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conjunto de expressões regulares, numeradas de `0` a `N - 1`, reconhecidas
+ * todas de uma vez: em uma única passada sobre a entrada é obtido o conjunto
+ * (um `BitSet`) dos números das ERs que a reconhecem, em vez de uma chamada de
+ * `Regex.accepts` por ER.
+ *
+ * No caso geral, as ERs são combinadas em um único AFD construído sob demanda
+ * por derivadas vetoriais: cada estado é o vetor das derivadas das `N` ERs em
+ * relação ao prefixo lido, e cada estado final guarda o conjunto das ERs cujas
+ * derivadas aceitam a cadeia vazia. As derivadas são construídas por uma
+ * `RegexFactory` com <em>hash-consing</em>, e cada par (estado, símbolo) é
+ * calculado uma única vez, como no `DerivativeMatcher`. Para a busca (`find`)
+ * é usado um segundo AFD, em que cada componente é `d(r) | r`, isto é, as ERs
+ * são reiniciadas em cada posição da entrada.
+ *
+ * Como no `LazyDfa`, o número de estados guardados por cada AFD é limitado por
+ * `maxStates`: quando a tabela enche, ela é esvaziada por completo, junto com
+ * a fábrica de ERs, e reconstruída a partir do estado corrente. Se a tabela for
+ * esvaziada com frequência excessiva (menos de `maxStates` símbolos
+ * processados entre duas limpezas), o restante da cadeia corrente é
+ * processado calculando diretamente as derivadas, sem criar estados.
+ *
+ * Se todas as ERs são palavras (concatenações de `Literal`), o conjunto usa
+ * um autômato de Aho–Corasick (`AhoCorasick`).
+ *
+ * Objetos desta classe não são seguros para uso concorrente.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class RegexSet<A> {
+
+    /**
+     * Número máximo de estados guardados por AFD, se nenhum for indicado.
+     */
+    public static final int DEFAULT_MAX_STATES = 10000;
+
+    private final List<Regex<A>> patterns;
+    private final int maxStates;
+    private final AhoCorasick<A> literals;
+    private final VectorDfa matchDfa;
+    private final VectorDfa findDfa;
+
+    /**
+     * Cria o conjunto das ERs `patterns`; a ER `patterns.get(i)` tem o número
+     * `i`.
+     *
+     * @param patterns as expressões regulares
+     */
+    public RegexSet(List<Regex<A>> patterns) {
+        this(patterns, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Cria o conjunto das ERs `patterns`, guardando no máximo `maxStates`
+     * estados em cada AFD.
+     *
+     * @param patterns as expressões regulares
+     * @param maxStates número máximo de estados guardados por AFD
+     * @throws IllegalArgumentException se `maxStates` é menor que
+     * `LazyDfa.MIN_MAX_STATES`
+     */
+    public RegexSet(List<Regex<A>> patterns, int maxStates) {
+        if (maxStates < LazyDfa.MIN_MAX_STATES) {
+            throw new IllegalArgumentException(String.format(
+                    "maxStates deve ser pelo menos %d: %d.", LazyDfa.MIN_MAX_STATES, maxStates));
+        }
+        this.patterns = List.copyOf(patterns);
+        this.maxStates = maxStates;
+        List<List<A>> words = new ArrayList<>();
+        for (Regex<A> re : this.patterns) {
+            List<A> w = wordOf(re);
+            if (w == null) {
+                words = null;
+                break;
+            }
+            words.add(w);
+        }
+        if (words != null) {
+            this.literals = new AhoCorasick<>(words);
+            this.matchDfa = null;
+            this.findDfa = null;
+        } else {
+            this.literals = null;
+            this.matchDfa = new VectorDfa(false);
+            this.findDfa = new VectorDfa(true);
+        }
+    }
+
+    /**
+     * Compila os padrões `patterns` (veja `Regex.compile`) em um conjunto.
+     *
+     * @param patterns textos dos padrões, na sintaxe do `RegexParser`
+     * @return o conjunto das ERs dos padrões, na mesma ordem
+     */
+    public static RegexSet<Character> compile(String... patterns) {
+        List<Regex<Character>> res = new ArrayList<>(patterns.length);
+        for (String p : patterns) {
+            res.add(Regex.compile(p));
+        }
+        return new RegexSet<>(res);
+    }
+
+    /**
+     * Palavra reconhecida por `re`, se `re` é formada apenas por `Literal`,
+     * `Empty` e `Concat`; `null` caso contrário.
+     */
+    private static <A> List<A> wordOf(Regex<A> re) {
+        List<A> word = new ArrayList<>();
+        Deque<Regex<A>> stack = new ArrayDeque<>();
+        stack.push(re);
+        while (!stack.isEmpty()) {
+            Regex<A> r = stack.pop();
+            if (r instanceof Concat) {
+                stack.push(((Concat<A>) r).re2);
+                stack.push(((Concat<A>) r).re1);
+            } else if (r instanceof Literal) {
+                word.add(((Literal<A>) r).symbol);
+            } else if (!(r instanceof Empty)) {
+                return null;
+            }
+        }
+        return word;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> Regex<A>[] newVector(int n) {
+        return (Regex<A>[]) new Regex<?>[n];
+    }
+
+    /**
+     * AFD construído sob demanda cujos estados são vetores de ERs, uma por
+     * padrão. Cada AFD tem a sua própria fábrica de ERs, descartada a cada
+     * limpeza da tabela.
+     */
+    private final class VectorDfa {
+
+        private final boolean search;
+        private RegexFactory<A> factory;
+        private Regex<A>[] roots;
+        private final List<Regex<A>[]> states = new ArrayList<>();
+        private final Map<List<Regex<A>>, Integer> ids = new HashMap<>();
+        private final List<Map<A, Integer>> trans = new ArrayList<>();
+        private final List<BitSet> finals = new ArrayList<>();
+        private final BitSet dead = new BitSet();
+        private long sinceFlush = 0;
+        private long flushes = 0;
+        private long fallbacks = 0;
+
+        VectorDfa(boolean search) {
+            this.search = search;
+            reset();
+        }
+
+        /**
+         * Esvazia a tabela e a fábrica, e recria o estado inicial, `0`.
+         */
+        private void reset() {
+            factory = new RegexFactory<>();
+            roots = newVector(patterns.size());
+            for (int i = 0; i < roots.length; i++) {
+                roots[i] = factory.normalize(patterns.get(i));
+            }
+            states.clear();
+            ids.clear();
+            trans.clear();
+            finals.clear();
+            dead.clear();
+            sinceFlush = 0;
+            intern(roots);
+        }
+
+        private int intern(Regex<A>[] v) {
+            List<Regex<A>> key = Arrays.asList(v);
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = states.size();
+                ids.put(key, id);
+                states.add(v);
+                trans.add(new HashMap<>());
+                finals.add(finalsOf(v));
+                if (isDead(v)) {
+                    dead.set(id);
+                }
+            }
+            return id;
+        }
+
+        /**
+         * Vetor das derivadas de `v` em relação a `x`, construídas por `f`.
+         */
+        private Regex<A>[] next(Regex<A>[] v, A x, RegexFactory<A> f) {
+            Regex<A>[] d = newVector(v.length);
+            for (int i = 0; i < v.length; i++) {
+                d[i] = v[i].derivative(x, f);
+                if (search) {
+                    d[i] = f.union(d[i], roots[i]);
+                }
+            }
+            return d;
+        }
+
+        int step(int s, A x) {
+            sinceFlush += 1;
+            Integer t = trans.get(s).get(x);
+            if (t == null) {
+                Regex<A>[] v = states.get(s);
+                Regex<A>[] d = next(v, x, factory);
+                if (states.size() >= maxStates && !ids.containsKey(Arrays.asList(d))) {
+                    flushes += 1;
+                    reset();
+                    Regex<A>[] u = newVector(v.length);
+                    for (int i = 0; i < v.length; i++) {
+                        u[i] = factory.normalize(v[i]);
+                    }
+                    s = intern(u);
+                    d = next(u, x, factory);
+                }
+                t = intern(d);
+                trans.get(s).put(x, t);
+            }
+            return t;
+        }
+
+        /**
+         * Indica se a tabela está sendo esvaziada com frequência excessiva,
+         * caso em que calcular diretamente as derivadas é mais barato.
+         */
+        private boolean thrashing() {
+            return flushes > 0 && sinceFlush < maxStates && states.size() >= maxStates;
+        }
+
+        BitSet run(List<A> w) {
+            int s = 0;
+            long f = flushes;
+            BitSet found = search ? (BitSet) finals.get(s).clone() : null;
+            for (int i = 0; i < w.size(); i++) {
+                if (!search && dead.get(s)) {
+                    break;
+                }
+                if (flushes != f && thrashing()) {
+                    return simulate(states.get(s), w, i, found);
+                }
+                s = step(s, w.get(i));
+                if (search) {
+                    BitSet fin = finals.get(s);
+                    if (!fin.isEmpty()) {
+                        found.or(fin);
+                    }
+                }
+            }
+            return search ? found : (BitSet) finals.get(s).clone();
+        }
+
+        /**
+         * Cálculo direto das derivadas a partir da posição `i` de `w`, com a
+         * fábrica sem <em>hash-consing</em>, de modo que nenhum estado ou nó
+         * novo é guardado.
+         */
+        private BitSet simulate(Regex<A>[] v, List<A> w, int i, BitSet found) {
+            fallbacks += 1;
+            RegexFactory<A> plain = RegexFactory.plain();
+            for (; i < w.size(); i++) {
+                if (!search && isDead(v)) {
+                    break;
+                }
+                v = next(v, w.get(i), plain);
+                if (search) {
+                    found.or(finalsOf(v));
+                }
+            }
+            return search ? found : finalsOf(v);
+        }
+    }
+
+    /**
+     * Conjunto das ERs de `v` que aceitam a cadeia vazia.
+     */
+    private static <A> BitSet finalsOf(Regex<A>[] v) {
+        BitSet fin = new BitSet();
+        for (int i = 0; i < v.length; i++) {
+            if (v[i].isNullable()) {
+                fin.set(i);
+            }
+        }
+        return fin;
+    }
+
+    /**
+     * Indica se todas as ERs de `v` são `∅`.
+     */
+    private static <A> boolean isDead(Regex<A>[] v) {
+        for (Regex<A> r : v) {
+            if (!(r instanceof Nothing)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Número de ERs do conjunto.
+     *
+     * @return o número de ERs
+     */
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * ER de número `id`.
+     *
+     * @param id número da ER
+     * @return a ER
+     */
+    public Regex<A> get(int id) {
+        return patterns.get(id);
+    }
+
+    /**
+     * Indica se todas as ERs são palavras, caso em que o conjunto usa um
+     * autômato de Aho–Corasick.
+     *
+     * @return `true` se o conjunto usa o autômato de Aho–Corasick
+     */
+    public boolean isLiteral() {
+        return literals != null;
+    }
+
+    /**
+     * ERs que reconhecem a cadeia `w` inteira.
+     *
+     * @param w cadeia de entrada
+     * @return os números das ERs que aceitam `w`
+     */
+    public BitSet matches(List<A> w) {
+        return (literals != null) ? literals.matches(w) : matchDfa.run(w);
+    }
+
+    /**
+     * ERs que reconhecem algum trecho (possivelmente vazio) da cadeia `w`.
+     *
+     * @param w cadeia de entrada
+     * @return os números das ERs que reconhecem algum trecho de `w`
+     */
+    public BitSet find(List<A> w) {
+        return (literals != null) ? literals.find(w) : findDfa.run(w);
+    }
+
+    /**
+     * Número de estados dos autômatos construídos até o momento.
+     *
+     * @return o número de estados
+     */
+    public int numStates() {
+        if (literals != null) {
+            return literals.numStates();
+        }
+        return matchDfa.states.size() + findDfa.states.size();
+    }
+
+    /**
+     * Número de vezes em que as tabelas de estados foram esvaziadas.
+     *
+     * @return o número de limpezas das tabelas
+     */
+    public long getFlushes() {
+        return (literals != null) ? 0 : matchDfa.flushes + findDfa.flushes;
+    }
+
+    /**
+     * Número de cadeias que foram processadas (ao menos em parte) calculando
+     * diretamente as derivadas.
+     *
+     * @return o número de simulações diretas
+     */
+    public long getFallbacks() {
+        return (literals != null) ? 0 : matchDfa.fallbacks + findDfa.fallbacks;
+    }
+
+    @Override
+    public String toString() {
+        return "RegexSet{" + "size=" + patterns.size() + ", literal=" + isLiteral() + '}';
+    }
+
+}
@@ -0,0 +1,291 @@
+package ifes.flat.re;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Repetição limitada `re{min,max}`: de `min` a `max` ocorrências consecutivas
+ * de `re`. Se `max` é `UNBOUNDED`, o número de ocorrências não tem limite
+ * superior (`re{min,}`).
+ *
+ * A repetição é mantida como um único nó, sem ser expandida em `max` cópias
+ * de `re`. O fecho positivo `re+` é a repetição `re{1,}`, que a `PikeVm` e as
+ * construções de Thompson e de Glushkov compilam com uma única cópia de `re`
+ * e uma transição de volta ao seu início (veja `isLoop`). Quando `re`
+ * reconhece um único símbolo (um `Literal` ou uma `CharClass`), a `PikeVm`
+ * executa as demais repetições como uma instrução de contagem, cujo tamanho
+ * não depende dos limites (veja `CountingSet`); nos outros casos é usada a
+ * forma expandida dada por `unroll`, cujo tamanho é limitado por
+ * `MAX_UNROLLED_SIZE`.
+ *
+ * Um autômato finito não tem contadores: nas construções de Thompson e de
+ * Glushkov, toda repetição que não é um laço é expandida, e cada cópia de
+ * `re` tem os seus próprios estados, que a determinização pode ainda
+ * multiplicar. Por isso essas construções recusam formas expandidas com mais
+ * de `MAX_AUTOMATON_UNROLLED_SIZE` nós; repetições maiores devem ser
+ * executadas pela `PikeVm` (`Regex.accepts`, `Regex.endPositions` ou
+ * `CompiledRegex`).
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class Repeat<A> extends Regex<A> {
+
+    /**
+     * Valor de `max` para repetições sem limite superior.
+     */
+    public static final int UNBOUNDED = -1;
+
+    /**
+     * Número máximo de nós da forma expandida de uma repetição, contando as
+     * repetições aninhadas também expandidas.
+     */
+    public static final int MAX_UNROLLED_SIZE = 100_000;
+
+    /**
+     * Número máximo de nós da forma expandida de uma repetição nas
+     * construções de Thompson e de Glushkov.
+     */
+    public static final int MAX_AUTOMATON_UNROLLED_SIZE = 256;
+
+    public final Regex<A> re;
+    public final int min;
+    public final int max;
+    private final int hash;
+
+    /**
+     * Cria a repetição `re{min,max}`.
+     *
+     * @param re a ER repetida
+     * @param min número mínimo de ocorrências
+     * @param max número máximo de ocorrências, ou `UNBOUNDED`
+     * @throws IllegalArgumentException se os limites são inválidos
+     */
+    public Repeat(Regex<A> re, int min, int max) {
+        if (min < 0 || (max != UNBOUNDED && max < min)) {
+            throw new IllegalArgumentException(String.format(
+                    "Limites de repetição inválidos: {%d,%d}.", min, max));
+        }
+        this.re = re;
+        this.min = min;
+        this.max = max;
+        int h = 7;
+        h = 67 * h + Objects.hashCode(re);
+        h = 67 * h + min;
+        h = 67 * h + max;
+        this.hash = h;
+    }
+
+    public boolean isBounded() {
+        return max != UNBOUNDED;
+    }
+
+    /**
+     * Indica se `re` reconhece um único símbolo, caso em que a repetição pode
+     * ser executada por contagem.
+     *
+     * @return `true` se `re` é um `Literal` ou uma `CharClass`
+     */
+    public boolean hasSingleSymbolBody() {
+        return re instanceof Literal || re instanceof CharClass;
+    }
+
+    /**
+     * Indica se a repetição é `re{0,}` ou `re{1,}`, que podem ser compiladas
+     * com uma única cópia de `re` e uma transição de volta ao seu início.
+     *
+     * @return `true` se não há limite superior e `min` é no máximo `1`
+     */
+    public boolean isLoop() {
+        return max == UNBOUNDED && min <= 1;
+    }
+
+    /**
+     * Forma expandida da repetição, sem o nó `Repeat` na raiz:
+     * `re{m,n}` = `re ... re (re (re ...)?)?`, com `m` cópias obrigatórias e
+     * `n - m` opcionais aninhadas, e `re{m,}` = `re ... re re{1,}`, com `m - 1`
+     * cópias antes do laço (ou `re*`, se `m` é `0`). O tamanho do resultado é
+     * proporcional a `max` (ou a `min`, se não há limite superior).
+     *
+     * @return uma ER equivalente sem o nó `Repeat` na raiz
+     * @throws IllegalArgumentException se a forma expandida teria mais de
+     * `MAX_UNROLLED_SIZE` nós
+     */
+    public Regex<A> unroll() {
+        return unroll(false);
+    }
+
+    /**
+     * Forma expandida da repetição. Se `counting` é `true`, as repetições
+     * aninhadas de um único símbolo não são contadas como expandidas no
+     * limite de tamanho, pois a `PikeVm` as executa por contagem.
+     */
+    Regex<A> unroll(boolean counting) {
+        if (unrolledSize(counting) > MAX_UNROLLED_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Repetição grande demais para ser expandida: {%d,%d} de uma ER com "
+                    + "%d nós (limite de %d nós).",
+                    min, max, expandedSize(re, counting), MAX_UNROLLED_SIZE));
+        }
+        return expand();
+    }
+
+    /**
+     * Forma expandida usada pelas construções de Thompson e de Glushkov, com
+     * no máximo `MAX_AUTOMATON_UNROLLED_SIZE` nós.
+     */
+    Regex<A> unrollForAutomaton() {
+        if (unrolledSize(false) > MAX_AUTOMATON_UNROLLED_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Repetição grande demais para a construção do autômato: {%d,%d} de "
+                    + "uma ER com %d nós (limite de %d nós). Use a PikeVm "
+                    + "(Regex.accepts, Regex.endPositions ou CompiledRegex).",
+                    min, max, expandedSize(re, false), MAX_AUTOMATON_UNROLLED_SIZE));
+        }
+        return expand();
+    }
+
+    /**
+     * Número de nós da forma expandida, limitado a `MAX_UNROLLED_SIZE + 1`
+     * por cópia de `re`.
+     */
+    private long unrolledSize(boolean counting) {
+        int copies = (max == UNBOUNDED) ? Math.max(min, 1) : max;
+        return (long) copies * expandedSize(re, counting);
+    }
+
+    private Regex<A> expand() {
+        Regex<A> tail;
+        int copies = min;
+        if (max == UNBOUNDED && min == 0) {
+            tail = new Star<>(re);
+        } else if (max == UNBOUNDED) {
+            tail = new Repeat<>(re, 1, UNBOUNDED);
+            copies = min - 1;
+        } else {
+            tail = new Empty<>();
+            for (int i = 0; i < max - min; i++) {
+                Regex<A> body = (tail instanceof Empty) ? re : new Concat<>(re, tail);
+                tail = new Union<>(body, new Empty<>());
+            }
+        }
+        Regex<A> result = tail;
+        for (int i = 0; i < copies; i++) {
+            result = (result instanceof Empty) ? re : new Concat<>(re, result);
+        }
+        return result;
+    }
+
+    /**
+     * Número de nós de `re` com as repetições aninhadas expandidas (exceto os
+     * laços `re{0,}` e `re{1,}` e, se `counting` é `true`, as repetições de um
+     * único símbolo), limitado a `MAX_UNROLLED_SIZE + 1`. O percurso é
+     * iterativo.
+     */
+    private static long expandedSize(Regex<?> re, boolean counting) {
+        final long limit = MAX_UNROLLED_SIZE + 1L;
+        Deque<Pair<Regex<?>, Boolean>> work = new ArrayDeque<>();
+        Deque<Long> sizes = new ArrayDeque<>();
+        work.push(p(re, false));
+        while (!work.isEmpty()) {
+            var item = work.pop();
+            Regex<?> node = item._1;
+            boolean expanded = item._2;
+            if (node instanceof Concat || node instanceof Union) {
+                if (!expanded) {
+                    Regex<?> r1 = (node instanceof Concat) ? ((Concat<?>) node).re1 : ((Union<?>) node).re1;
+                    Regex<?> r2 = (node instanceof Concat) ? ((Concat<?>) node).re2 : ((Union<?>) node).re2;
+                    work.push(p(node, true));
+                    work.push(p(r2, false));
+                    work.push(p(r1, false));
+                } else {
+                    long s2 = sizes.pop();
+                    long s1 = sizes.pop();
+                    sizes.push(Math.min(s1 + s2 + 1, limit));
+                }
+            } else if (node instanceof Star) {
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(((Star<?>) node).re, false));
+                } else {
+                    sizes.push(Math.min(sizes.pop() + 1, limit));
+                }
+            } else if (node instanceof Repeat) {
+                Repeat<?> r = (Repeat<?>) node;
+                if (counting && r.hasSingleSymbolBody()) {
+                    sizes.push(1L);
+                } else if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(r.re, false));
+                } else if (r.isLoop()) {
+                    sizes.push(Math.min(sizes.pop() + 1, limit));
+                } else {
+                    int copies = (r.max == UNBOUNDED) ? r.min : r.max;
+                    sizes.push(Math.min(copies * sizes.pop(), limit));
+                }
+            } else {
+                sizes.push(1L);
+            }
+        }
+        return sizes.pop();
+    }
+
+    @Override
+    public boolean isNullable() {
+        return min == 0 || re.isNullable();
+    }
+
+    /**
+     * A derivada de `re{m,n}` é `d(re) re{m-1,n-1}` (com `m-1` limitado a
+     * `0`), e a de `re{m,0}` é `∅`.
+     */
+    @Override
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        if (max == 0) {
+            return factory.nothing();
+        }
+        int m = Math.max(min - 1, 0);
+        int n = (max == UNBOUNDED) ? UNBOUNDED : max - 1;
+        return factory.concat(re.derivative(x, factory), factory.repeat(re, m, n));
+    }
+
+    @Override
+    public String toString() {
+        return "Repeat{" + "re=" + re + ", min=" + min + ", max=" + max + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final Repeat<?> other = (Repeat<?>) obj;
+        if (this.hash != other.hash) {
+            return false;
+        }
+        if (this.min != other.min) {
+            return false;
+        }
+        if (this.max != other.max) {
+            return false;
+        }
+        if (!Objects.equals(this.re, other.re)) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -1,14 +1,6 @@
 package ifes.flat.re;
 
-import ifes.data.Pair;
-import static ifes.data.Pair.p;
-import static ifes.Utils.append;
-import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  *
@@ -16,27 +8,27 @@ import java.util.stream.Stream;
  */
 public class Star<A> extends Regex<A> {
 
-    private final Regex<A> re;
+    public final Regex<A> re;
+    private final int hash;
 
     public Star(Regex<A> re) {
         this.re = re;
+        int h = 5;
+        h = 83 * h + Objects.hashCode(re);
+        this.hash = h;
     }
 
     @Override
-    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
-        var s1 = re.matches(w);
-        if (s1.isEmpty()) {
-            return Set.of(p(Collections.emptyList(), w));
-        } else {
-            return s1.stream()
-                    .flatMap(m1 -> {
-                        var st1 = Stream.of(m1);
-                        var st2 = this.matches(m1._2).stream()
-                                .map(m2 -> p(append(m1._1, m2._1), m2._2));
-                        return Stream.concat(st1, st2);
-                    })
-                    .collect(Collectors.toSet());
-        }
+    public boolean isNullable() {
+        return true;
+    }
+
+    /**
+     * A derivada de `re*` é `d(re) re*`.
+     */
+    @Override
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        return factory.concat(re.derivative(x, factory), this);
     }
 
     @Override
@@ -46,8 +38,6 @@ public class Star<A> extends Regex<A> {
 
     @Override
     public int hashCode() {
-        int hash = 5;
-        hash = 83 * hash + Objects.hashCode(this.re);
         return hash;
     }
 
@@ -63,6 +53,9 @@ public class Star<A> extends Regex<A> {
             return false;
         }
         final Star<?> other = (Star<?>) obj;
+        if (this.hash != other.hash) {
+            return false;
+        }
         if (!Objects.equals(this.re, other.re)) {
             return false;
         }
@@ -0,0 +1,206 @@
+package ifes.flat.re;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import ifes.flat.rl.Enfa;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Construção de Thompson: converte uma expressão regular em um AFN-ε
+ * equivalente, com estados numerados a partir de `0`. Cada nó da ER produz um
+ * fragmento com um único estado de entrada e um único estado de saída:
+ *
+ * <ul>
+ * <li>`Literal a`: entrada `--a-->` saída;</li>
+ * <li>`CharClass`: uma transição entrada `--c-->` saída para cada bloco da
+ * classe, rotulada com o representante `c` do bloco (veja
+ * `CharPartition`);</li>
+ * <li>`Empty`: entrada `--ε-->` saída;</li>
+ * <li>`Nothing`: entrada e saída sem nenhuma transição;</li>
+ * <li>`Concat`: a saída de `re1` liga-se por ε à entrada de `re2`;</li>
+ * <li>`Union`: uma nova entrada liga-se por ε às entradas de `re1` e `re2`, e
+ * as saídas destes ligam-se por ε a uma nova saída;</li>
+ * <li>`Star`: uma nova entrada liga-se por ε à entrada de `re` e à nova
+ * saída, e a saída de `re` liga-se por ε de volta à entrada de `re` e à nova
+ * saída;</li>
+ * <li>`Repeat`: para `re{1,}` (`re+`), o fragmento de `Star` sem a
+ * transição ε da nova entrada para a nova saída; para `re{0,}`, o de `Star`;
+ * nos demais casos, o fragmento da forma expandida (`Repeat.unroll`), com uma
+ * cópia de `re` para cada ocorrência possível, desde que ela não exceda
+ * `Repeat.MAX_AUTOMATON_UNROLLED_SIZE` nós.</li>
+ * </ul>
+ *
+ * Assim, o AFN-ε tem no máximo dois estados por nó da ER. O percurso da árvore
+ * é iterativo, de modo que ERs muito profundas (como as longas cadeias de
+ * concatenações produzidas pelo `RegexParser`) não esgotam a pilha de
+ * execução.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class ThompsonCompiler {
+
+    private ThompsonCompiler() {
+    }
+
+    /**
+     * Retorna um AFN-ε que reconhece a mesma linguagem que a ER `re`. O
+     * alfabeto do autômato é o conjunto dos símbolos que aparecem em `re`, e
+     * cada classe de caracteres contribui com os representantes dos seus
+     * blocos (veja `CharPartition`).
+     *
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param re a expressão regular
+     * @return um AFN-ε equivalente a `re`
+     * @throws IllegalArgumentException se `re` contém um tipo de nó
+     * desconhecido, ou uma repetição cuja forma expandida excede
+     * `Repeat.MAX_AUTOMATON_UNROLLED_SIZE` nós
+     */
+    public static <A> Enfa<Integer, A> compile(Regex<A> re) {
+        Set<A> alphabet = new HashSet<>();
+        Map<Pair<Integer, Optional<A>>, Set<Integer>> transFn = new HashMap<>();
+        // Pilha de nós a visitar; um nó já expandido é marcado com `true`.
+        Deque<Pair<Regex<A>, Boolean>> work = new ArrayDeque<>();
+        // Pilha de fragmentos prontos: pares (entrada, saída).
+        int[] frags = new int[16];
+        int top = 0;
+        int next = 0;
+        // Calculada apenas se `re` tem alguma classe de caracteres.
+        CharPartition blocks = null;
+        work.push(p(re, false));
+        while (!work.isEmpty()) {
+            var item = work.pop();
+            Regex<A> node = item._1;
+            boolean expanded = item._2;
+            if (top + 2 > frags.length) {
+                frags = Arrays.copyOf(frags, 2 * frags.length);
+            }
+            if (node instanceof Literal) {
+                A x = ((Literal<A>) node).symbol;
+                alphabet.add(x);
+                int s = next++;
+                int f = next++;
+                addTrans(transFn, s, Optional.of(x), f);
+                frags[top++] = s;
+                frags[top++] = f;
+            } else if (node instanceof CharClass) {
+                // Uma transição por bloco da classe, entre os mesmos estados.
+                if (blocks == null) {
+                    blocks = CharPartition.of(re);
+                }
+                int s = next++;
+                int f = next++;
+                for (Character c : blocks.representatives((CharClass) node)) {
+                    @SuppressWarnings("unchecked")
+                    A x = (A) c;
+                    alphabet.add(x);
+                    addTrans(transFn, s, Optional.of(x), f);
+                }
+                frags[top++] = s;
+                frags[top++] = f;
+            } else if (node instanceof Empty) {
+                int s = next++;
+                int f = next++;
+                addTrans(transFn, s, Optional.empty(), f);
+                frags[top++] = s;
+                frags[top++] = f;
+            } else if (node instanceof Nothing) {
+                frags[top++] = next++;
+                frags[top++] = next++;
+            } else if (node instanceof Concat) {
+                Concat<A> c = (Concat<A>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(c.re2, false));
+                    work.push(p(c.re1, false));
+                } else {
+                    int f2 = frags[--top];
+                    int s2 = frags[--top];
+                    int f1 = frags[--top];
+                    int s1 = frags[--top];
+                    addTrans(transFn, f1, Optional.empty(), s2);
+                    frags[top++] = s1;
+                    frags[top++] = f2;
+                }
+            } else if (node instanceof Union) {
+                Union<A> u = (Union<A>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(u.re2, false));
+                    work.push(p(u.re1, false));
+                } else {
+                    int f2 = frags[--top];
+                    int s2 = frags[--top];
+                    int f1 = frags[--top];
+                    int s1 = frags[--top];
+                    int s = next++;
+                    int f = next++;
+                    addTrans(transFn, s, Optional.empty(), s1);
+                    addTrans(transFn, s, Optional.empty(), s2);
+                    addTrans(transFn, f1, Optional.empty(), f);
+                    addTrans(transFn, f2, Optional.empty(), f);
+                    frags[top++] = s;
+                    frags[top++] = f;
+                }
+            } else if (node instanceof Star) {
+                Star<A> st = (Star<A>) node;
+                if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(st.re, false));
+                } else {
+                    int f1 = frags[--top];
+                    int s1 = frags[--top];
+                    int s = next++;
+                    int f = next++;
+                    addTrans(transFn, s, Optional.empty(), s1);
+                    addTrans(transFn, s, Optional.empty(), f);
+                    addTrans(transFn, f1, Optional.empty(), s1);
+                    addTrans(transFn, f1, Optional.empty(), f);
+                    frags[top++] = s;
+                    frags[top++] = f;
+                }
+            } else if (node instanceof Repeat) {
+                Repeat<A> r = (Repeat<A>) node;
+                if (!r.isLoop()) {
+                    work.push(p(r.unrollForAutomaton(), false));
+                } else if (!expanded) {
+                    work.push(p(node, true));
+                    work.push(p(r.re, false));
+                } else {
+                    int f1 = frags[--top];
+                    int s1 = frags[--top];
+                    int s = next++;
+                    int f = next++;
+                    addTrans(transFn, s, Optional.empty(), s1);
+                    if (r.min == 0) {
+                        addTrans(transFn, s, Optional.empty(), f);
+                    }
+                    addTrans(transFn, f1, Optional.empty(), s1);
+                    addTrans(transFn, f1, Optional.empty(), f);
+                    frags[top++] = s;
+                    frags[top++] = f;
+                }
+            } else {
+                throw new IllegalArgumentException("Tipo de expressão regular desconhecido: "
+                        + node.getClass().getName());
+            }
+        }
+        Set<Integer> states = new HashSet<>();
+        for (int q = 0; q < next; q++) {
+            states.add(q);
+        }
+        return new Enfa<>(alphabet, states, transFn, frags[0], Set.of(frags[1]));
+    }
+
+    private static <A> void addTrans(Map<Pair<Integer, Optional<A>>, Set<Integer>> transFn,
+            int from, Optional<A> x, int to) {
+        transFn.computeIfAbsent(p(from, x), k -> new HashSet<>()).add(to);
+    }
+
+}
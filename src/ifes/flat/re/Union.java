@@ -1,10 +1,8 @@
 package ifes.flat.re;
 
-import ifes.data.Pair;
-import ifes.Utils;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  *
@@ -12,27 +10,39 @@ import java.util.Set;
  */
 public class Union<A> extends Regex<A> {
 
-    private final Regex<A> re1;
-    private final Regex<A> re2;
+    public final Regex<A> re1;
+    public final Regex<A> re2;
+    private final int hash;
+    private final boolean nullable;
 
     public Union(Regex<A> re1, Regex<A> re2) {
         this.re1 = re1;
         this.re2 = re2;
+        int h = 7;
+        h = 37 * h + Objects.hashCode(re1);
+        h = 37 * h + Objects.hashCode(re2);
+        this.hash = h;
+        this.nullable = re1.isNullable() || re2.isNullable();
+    }
+
+    @Override
+    public boolean isNullable() {
+        return nullable;
     }
 
     /**
-     * Retorna o conjunto de todos os <em>matches</em> reconhecidos pela ER
-     * `re1` ou pela ER `re2`.
-     *
-     * @param w a cadeia de entrada
-     * @return o conjunto de todos os <em>matches</em> reconhecidos por `re1` ou
-     * por `re2`
+     * A derivada de uma união é a união das derivadas das alternativas. A
+     * cadeia de uniões é percorrida iterativamente, de modo que uniões com
+     * muitas alternativas não esgotam a pilha de execução.
      */
     @Override
-    public Set<Pair<List<A>, List<A>>> matches(List<A> w) {
-        Set<Pair<List<A>, List<A>>> s1 = re1.matches(w);
-        Set<Pair<List<A>, List<A>>> s2 = re2.matches(w);
-        return Utils.union(s1, s2);
+    public Regex<A> derivative(A x, RegexFactory<A> factory) {
+        List<Regex<A>> alts = RegexFactory.parts(this);
+        List<Regex<A>> ds = new ArrayList<>(alts.size());
+        for (Regex<A> r : alts) {
+            ds.add(r.derivative(x, factory));
+        }
+        return factory.union(ds);
     }
 
     @Override
@@ -42,9 +52,6 @@ public class Union<A> extends Regex<A> {
 
     @Override
     public int hashCode() {
-        int hash = 7;
-        hash = 37 * hash + Objects.hashCode(this.re1);
-        hash = 37 * hash + Objects.hashCode(this.re2);
         return hash;
     }
 
@@ -60,6 +67,9 @@ public class Union<A> extends Regex<A> {
             return false;
         }
         final Union<?> other = (Union<?>) obj;
+        if (this.hash != other.hash) {
+            return false;
+        }
         if (!Objects.equals(this.re1, other.re1)) {
             return false;
         }
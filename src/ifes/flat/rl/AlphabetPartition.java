@@ -0,0 +1,231 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import ifes.flat.SymbolTable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Partição do alfabeto de um autômato em classes de equivalência. Dois
+ * símbolos são equivalentes quando, em todos os estados, levam ao mesmo
+ * destino (ou seja, quando as suas colunas na tabela de transição são
+ * idênticas). Uma tabela de transição indexada por classes, em vez de
+ * símbolos, reconhece a mesma linguagem e, para alfabetos grandes, costuma
+ * ser ordens de grandeza menor.
+ *
+ * As classes são calculadas por refinamento sucessivo: inicialmente todos os
+ * símbolos estão na mesma classe e, para cada estado, os símbolos de uma mesma
+ * classe são separados de acordo com o destino da transição nesse estado. O
+ * custo total é proporcional ao número de transições definidas mais o tamanho
+ * do alfabeto.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class AlphabetPartition<A> {
+
+    private final SymbolTable<A> symbols;
+    private final int[] classOf;
+    private final int[] representative;
+
+    AlphabetPartition(SymbolTable<A> symbols, int[] classOf) {
+        this.symbols = symbols;
+        this.classOf = classOf;
+        int nc = 0;
+        for (int c : classOf) {
+            nc = Math.max(nc, c + 1);
+        }
+        this.representative = new int[nc];
+        Arrays.fill(representative, -1);
+        for (int x = classOf.length - 1; x >= 0; x--) {
+            representative[classOf[x]] = x;
+        }
+    }
+
+    /**
+     * Calcula as classes de equivalência do alfabeto do AFD `m`.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFD
+     * @return a partição do alfabeto de `m`
+     */
+    public static <S, A> AlphabetPartition<A> of(Dfa<S, A> m) {
+        var states = SymbolTable.of(m.getStates());
+        var symbols = SymbolTable.of(m.getAlphabet());
+        return of(states, symbols, m.getTransFn(), new SymbolTable<S>());
+    }
+
+    /**
+     * Calcula as classes de equivalência do alfabeto do AFN `m`. Os destinos
+     * das transições são conjuntos de estados, e dois símbolos são equivalentes
+     * quando levam ao mesmo conjunto em todos os estados.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFN
+     * @return a partição do alfabeto de `m`
+     */
+    public static <S, A> AlphabetPartition<A> of(Nfa<S, A> m) {
+        var states = SymbolTable.of(m.getStates());
+        var symbols = SymbolTable.of(m.getAlphabet());
+        return of(states, symbols, m.getTransFn(), new SymbolTable<Set<S>>());
+    }
+
+    private static <S, A, T> AlphabetPartition<A> of(SymbolTable<S> states,
+            SymbolTable<A> symbols, Map<Pair<S, A>, T> transFn,
+            SymbolTable<T> targets) {
+        int n = transFn.size();
+        int[] src = new int[n];
+        int[] sym = new int[n];
+        int[] dst = new int[n];
+        int k = 0;
+        for (Map.Entry<Pair<S, A>, T> tr : transFn.entrySet()) {
+            int si = states.id(tr.getKey()._1);
+            int x = symbols.id(tr.getKey()._2);
+            if (si >= 0 && x >= 0) {
+                src[k] = si;
+                sym[k] = x;
+                dst[k] = targets.intern(tr.getValue());
+                k += 1;
+            }
+        }
+        int[] classOf = refine(symbols.size(), states.size(), k, src, sym, dst);
+        return new AlphabetPartition<>(symbols, classOf);
+    }
+
+    /**
+     * Calcula a classe de cada símbolo a partir das `n` transições
+     * `src[i] --sym[i]--> dst[i]`. Símbolos sem transição em um estado são
+     * tratados como se fossem para um destino "morto" comum.
+     *
+     * @return vetor com a classe de cada símbolo, numeradas de forma densa
+     * na ordem da primeira ocorrência
+     */
+    static int[] refine(int numSymbols, int numStates, int n,
+            int[] src, int[] sym, int[] dst) {
+        // Transições agrupadas por estado de origem (ordenação por contagem).
+        int[] start = new int[numStates + 1];
+        for (int i = 0; i < n; i++) {
+            start[src[i] + 1] += 1;
+        }
+        for (int s = 0; s < numStates; s++) {
+            start[s + 1] += start[s];
+        }
+        int[] fill = Arrays.copyOf(start, numStates);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[fill[src[i]]++] = i;
+        }
+
+        int[] classOf = new int[numSymbols];
+        int next = 1;
+        Map<Long, Integer> split = new HashMap<>();
+        for (int s = 0; s < numStates; s++) {
+            split.clear();
+            for (int j = start[s]; j < start[s + 1]; j++) {
+                int i = order[j];
+                long key = ((long) classOf[sym[i]] << 32) | (dst[i] & 0xffffffffL);
+                Integer c = split.get(key);
+                if (c == null) {
+                    c = next++;
+                    split.put(key, c);
+                }
+                classOf[sym[i]] = c;
+            }
+        }
+
+        // Renumeração densa das classes.
+        Map<Integer, Integer> dense = new HashMap<>();
+        for (int x = 0; x < numSymbols; x++) {
+            Integer c = dense.get(classOf[x]);
+            if (c == null) {
+                c = dense.size();
+                dense.put(classOf[x], c);
+            }
+            classOf[x] = c;
+        }
+        return classOf;
+    }
+
+    public int numSymbols() {
+        return classOf.length;
+    }
+
+    public int numClasses() {
+        return representative.length;
+    }
+
+    /**
+     * Retorna a classe do símbolo de número `x`.
+     *
+     * @param x número do símbolo
+     * @return a classe de `x`
+     */
+    public int classOf(int x) {
+        return classOf[x];
+    }
+
+    /**
+     * Retorna a classe do símbolo `x`, ou `-1` se `x` não pertence ao
+     * alfabeto.
+     *
+     * @param x símbolo do alfabeto
+     * @return a classe de `x`
+     */
+    public int classOf(A x) {
+        int i = symbols.id(x);
+        return (i >= 0) ? classOf[i] : -1;
+    }
+
+    /**
+     * Retorna o número do primeiro símbolo da classe `c`.
+     *
+     * @param c número da classe
+     * @return número de um símbolo da classe
+     */
+    public int representative(int c) {
+        return representative[c];
+    }
+
+    public List<A> getSymbols() {
+        return symbols.values();
+    }
+
+    @Override
+    public String toString() {
+        return "AlphabetPartition{" + "numSymbols=" + numSymbols()
+                + ", numClasses=" + numClasses() + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + Objects.hashCode(this.symbols);
+        hash = 41 * hash + Arrays.hashCode(this.classOf);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final AlphabetPartition<?> other = (AlphabetPartition<?>) obj;
+        if (!Objects.equals(this.symbols, other.symbols)) {
+            return false;
+        }
+        return Arrays.equals(this.classOf, other.classOf);
+    }
+
+}
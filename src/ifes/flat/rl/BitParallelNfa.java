@@ -0,0 +1,311 @@
+package ifes.flat.rl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Simulação bit-paralela de AFNs pequenos (até `MAX_STATES` estados, depois
+ * da eliminação das transições ε). O conjunto de estados corrente cabe em um
+ * ou dois `long`s, e cada passo é feito com poucas operações sobre palavras,
+ * sem nenhuma determinização.
+ *
+ * Há dois modos de execução:
+ *
+ * <ul>
+ * <li><b>Shift-And</b>: se os estados formam uma cadeia `q0 → q1 → ... →
+ * qn` (cada estado tem no máximo um sucessor diferente de si mesmo, e no
+ * máximo um predecessor), os estados são numerados ao longo da cadeia e o
+ * passo é `D = ((D << 1) & mask[c]) | (D & loop[c])`, onde `mask[c]` marca os
+ * estados que podem ser alcançados pela classe de símbolos `c` e `loop[c]`
+ * os estados com laço em `c`. Esse é o caso de palavras e de padrões simples
+ * como `a b* c`.</li>
+ * <li><b>Tabelas por byte</b>: no caso geral, o conjunto corrente é dividido
+ * em blocos de 8 estados, e para cada bloco, valor do bloco e classe de
+ * símbolos é pré-calculado o conjunto de sucessores. Um passo é o "ou" de
+ * uma consulta por bloco (no máximo 16).</li>
+ * </ul>
+ *
+ * A aceitação é ancorada, isto é, tem a mesma semântica de `Nfa.accept`. Os
+ * objetos são imutáveis depois de construídos, e podem ser compartilhados
+ * entre várias <em>threads</em>.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <S> tipo dos objetos que representam estados do autômato original
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class BitParallelNfa<S, A> {
+
+    /**
+     * Número máximo de estados suportado.
+     */
+    public static final int MAX_STATES = 128;
+
+    private final NfaIndex<S, A> nfa;
+    private final int numClasses;
+    private final boolean shiftAnd;
+    private final int chunks;
+
+    // Modo Shift-And (até 64 estados).
+    private final long[] mask;
+    private final long[] loop;
+
+    // Modo de tabelas por byte: posição ((k * 256 + b) * numClasses + c).
+    private final long[] tableLo;
+    private final long[] tableHi;
+
+    private final long initLo;
+    private final long initHi;
+    private final long finalLo;
+    private final long finalHi;
+
+    private BitParallelNfa(NfaIndex<S, A> nfa) {
+        this.nfa = nfa;
+        int n = nfa.numStates();
+        int nc = nfa.numClasses();
+        this.numClasses = nc;
+        this.chunks = (n + 7) >>> 3;
+        int[] pos = (n <= 64) ? chainOrder(nfa) : null;
+        this.shiftAnd = pos != null;
+        if (pos == null) {
+            pos = new int[n];
+            for (int s = 0; s < n; s++) {
+                pos[s] = s;
+            }
+        }
+
+        long[] fl = new long[2];
+        for (int s = 0; s < n; s++) {
+            if (nfa.isFinal(s)) {
+                fl[pos[s] >>> 6] |= 1L << pos[s];
+            }
+        }
+        this.finalLo = fl[0];
+        this.finalHi = fl[1];
+        int init = nfa.getInitState();
+        long[] il = new long[2];
+        if (init >= 0) {
+            il[pos[init] >>> 6] |= 1L << pos[init];
+        }
+        this.initLo = il[0];
+        this.initHi = il[1];
+
+        if (shiftAnd) {
+            this.mask = new long[nc];
+            this.loop = new long[nc];
+            for (int s = 0; s < n; s++) {
+                for (int c = 0; c < nc; c++) {
+                    for (int e = nfa.succStart(s, c); e < nfa.succEnd(s, c); e++) {
+                        int t = nfa.succ(e);
+                        if (t == s) {
+                            loop[c] |= 1L << pos[s];
+                        } else {
+                            mask[c] |= 1L << pos[t];
+                        }
+                    }
+                }
+            }
+            this.tableLo = null;
+            this.tableHi = null;
+        } else {
+            this.mask = null;
+            this.loop = null;
+            this.tableLo = new long[chunks * 256 * nc];
+            this.tableHi = (n > 64) ? new long[chunks * 256 * nc] : null;
+            for (int k = 0; k < chunks; k++) {
+                for (int b = 1; b < 256; b++) {
+                    int s = 8 * k + Integer.numberOfTrailingZeros(b);
+                    int prev = b & (b - 1);
+                    for (int c = 0; c < nc; c++) {
+                        int j = (k * 256 + b) * nc + c;
+                        int jp = (k * 256 + prev) * nc + c;
+                        long lo = tableLo[jp];
+                        long hi = (tableHi != null) ? tableHi[jp] : 0L;
+                        if (s < n) {
+                            for (int e = nfa.succStart(s, c); e < nfa.succEnd(s, c); e++) {
+                                int t = nfa.succ(e);
+                                if (t < 64) {
+                                    lo |= 1L << t;
+                                } else {
+                                    hi |= 1L << t;
+                                }
+                            }
+                        }
+                        tableLo[j] = lo;
+                        if (tableHi != null) {
+                            tableHi[j] = hi;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Se os estados formam uma cadeia a partir do estado inicial, retorna a
+     * posição de cada estado na cadeia; caso contrário, retorna `null`.
+     */
+    private static int[] chainOrder(NfaIndex<?, ?> nfa) {
+        int n = nfa.numStates();
+        int[] next = new int[n];
+        int[] preds = new int[n];
+        Arrays.fill(next, -1);
+        for (int s = 0; s < n; s++) {
+            for (int c = 0; c < nfa.numClasses(); c++) {
+                for (int e = nfa.succStart(s, c); e < nfa.succEnd(s, c); e++) {
+                    int t = nfa.succ(e);
+                    if (t == s) {
+                        continue;
+                    }
+                    if (next[s] < 0) {
+                        next[s] = t;
+                        preds[t] += 1;
+                    } else if (next[s] != t) {
+                        return null;
+                    }
+                }
+            }
+        }
+        int init = nfa.getInitState();
+        if (init < 0 || preds[init] > 0) {
+            return null;
+        }
+        int[] pos = new int[n];
+        Arrays.fill(pos, -1);
+        int i = 0;
+        for (int s = init; s >= 0; s = next[s]) {
+            if (pos[s] >= 0 || preds[s] > 1) {
+                return null;
+            }
+            pos[s] = i++;
+        }
+        return (i == n) ? pos : null;
+    }
+
+    /**
+     * Compila o AFN `m` para simulação bit-paralela, se ele tiver no máximo
+     * `MAX_STATES` estados.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFN
+     * @return o simulador, ou `Optional.empty()` se `m` tem estados demais
+     */
+    public static <S, A> Optional<BitParallelNfa<S, A>> compile(Nfa<S, A> m) {
+        if (m.getStates().size() > MAX_STATES) {
+            return Optional.empty();
+        }
+        return Optional.of(new BitParallelNfa<>(NfaIndex.of(m)));
+    }
+
+    /**
+     * Compila o AFN-ε `m` para simulação bit-paralela, depois de eliminar as
+     * transições ε (e os estados que se tornam inalcançáveis).
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFN-ε
+     * @return o simulador, ou `Optional.empty()` se o AFN resultante tem
+     * estados demais
+     */
+    public static <S, A> Optional<BitParallelNfa<S, A>> compile(Enfa<S, A> m) {
+        return compile(EpsilonEliminator.eliminate(m));
+    }
+
+    /**
+     * Indica se o modo Shift-And (cadeia de estados) está sendo usado.
+     *
+     * @return `true` se o AFN é uma cadeia de estados
+     */
+    public boolean isShiftAnd() {
+        return shiftAnd;
+    }
+
+    public NfaIndex<S, A> getNfa() {
+        return nfa;
+    }
+
+    /**
+     * Função de aceitação sobre uma cadeia já convertida para números de
+     * símbolos. Símbolos fora do alfabeto (negativos) levam à rejeição.
+     *
+     * @param w cadeia representada pelos números dos símbolos
+     * @return `true` se a cadeia é aceita pelo autômato
+     */
+    public boolean accept(int[] w) {
+        if (shiftAnd) {
+            return acceptShiftAnd(w);
+        } else if (tableHi == null) {
+            return accept64(w);
+        } else {
+            return accept128(w);
+        }
+    }
+
+    private boolean acceptShiftAnd(int[] w) {
+        long d = initLo;
+        for (int i = 0; i < w.length && d != 0; i++) {
+            if (w[i] < 0) {
+                return false;
+            }
+            int c = nfa.classOf(w[i]);
+            d = ((d << 1) & mask[c]) | (d & loop[c]);
+        }
+        return (d & finalLo) != 0;
+    }
+
+    private boolean accept64(int[] w) {
+        long d = initLo;
+        for (int i = 0; i < w.length && d != 0; i++) {
+            if (w[i] < 0) {
+                return false;
+            }
+            int c = nfa.classOf(w[i]);
+            long next = 0;
+            for (int k = 0; k < chunks; k++) {
+                int b = (int) (d >>> (8 * k)) & 0xff;
+                next |= tableLo[(k * 256 + b) * numClasses + c];
+            }
+            d = next;
+        }
+        return (d & finalLo) != 0;
+    }
+
+    private boolean accept128(int[] w) {
+        long lo = initLo;
+        long hi = initHi;
+        for (int i = 0; i < w.length && (lo | hi) != 0; i++) {
+            if (w[i] < 0) {
+                return false;
+            }
+            int c = nfa.classOf(w[i]);
+            long nlo = 0;
+            long nhi = 0;
+            for (int k = 0; k < chunks; k++) {
+                long word = (k < 8) ? lo : hi;
+                int b = (int) (word >>> (8 * (k & 7))) & 0xff;
+                int j = (k * 256 + b) * numClasses + c;
+                nlo |= tableLo[j];
+                nhi |= tableHi[j];
+            }
+            lo = nlo;
+            hi = nhi;
+        }
+        return (lo & finalLo) != 0 || (hi & finalHi) != 0;
+    }
+
+    public boolean accept(List<A> w) {
+        int[] xs = new int[w.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = nfa.symbolId(w.get(i));
+        }
+        return accept(xs);
+    }
+
+    @Override
+    public String toString() {
+        return "BitParallelNfa{" + "numStates=" + nfa.numStates()
+                + ", shiftAnd=" + shiftAnd + '}';
+    }
+
+}
@@ -0,0 +1,42 @@
+package ifes.flat.rl;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de estados, representado como vetor de bits, usado como chave em
+ * tabelas de espalhamento. O valor de espalhamento é calculado uma única vez,
+ * na construção. O vetor não deve ser modificado depois disso.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+final class BitSetKey {
+
+    final long[] bits;
+    private final int hash;
+
+    BitSetKey(long[] bits) {
+        this.bits = bits;
+        this.hash = Arrays.hashCode(bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final BitSetKey other = (BitSetKey) obj;
+        return this.hash == other.hash && Arrays.equals(this.bits, other.bits);
+    }
+
+}
@@ -0,0 +1,212 @@
+package ifes.flat.rl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simulação de AFN e AFN-ε sobre conjuntos de estados representados como
+ * vetores de bits. Para cada par (estado, classe de símbolo) é calculado
+ * previamente o conjunto de sucessores, já incluindo o fecho ε, de modo que
+ * um passo da simulação é apenas o "ou" dos conjuntos de sucessores dos
+ * estados correntes. Conjuntos de sucessores iguais são compartilhados.
+ *
+ * A simulação usa dois vetores alternados (o conjunto corrente e o próximo) e
+ * não aloca nenhum objeto por símbolo processado. Se a tabela de sucessores
+ * ficar grande demais (mais de `MAX_TABLE_WORDS` posições), os sucessores são
+ * calculados a cada passo a partir das listas do `NfaIndex`.
+ *
+ * Os objetos são imutáveis depois de construídos, e podem ser compartilhados
+ * entre várias <em>threads</em>.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <S> tipo dos objetos que representam estados do autômato original
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class BitsetNfa<S, A> {
+
+    /**
+     * Número máximo de `long`s da tabela de sucessores (32 MB).
+     */
+    public static final int MAX_TABLE_WORDS = 1 << 22;
+
+    private final NfaIndex<S, A> nfa;
+    private final int numClasses;
+    private final int words;
+    private final long[][] rows;
+    private final long[] initSet;
+
+    /**
+     * Prepara a simulação do AFN representado por `nfa`.
+     *
+     * @param nfa representação densa do AFN
+     */
+    public BitsetNfa(NfaIndex<S, A> nfa) {
+        this.nfa = nfa;
+        this.numClasses = nfa.numClasses();
+        this.words = nfa.words();
+        this.initSet = nfa.initSet();
+        this.rows = buildRows(nfa);
+    }
+
+    public static <S, A> BitsetNfa<S, A> of(Nfa<S, A> m) {
+        return new BitsetNfa<>(NfaIndex.of(m));
+    }
+
+    public static <S, A> BitsetNfa<S, A> of(Enfa<S, A> m) {
+        return new BitsetNfa<>(NfaIndex.of(m));
+    }
+
+    private static long[][] buildRows(NfaIndex<?, ?> nfa) {
+        int n = nfa.numStates();
+        int nc = nfa.numClasses();
+        int words = nfa.words();
+        int[] stack = new int[n];
+        long[][] rows = new long[n * nc][];
+        Map<BitSetKey, long[]> shared = new HashMap<>();
+        long total = 0;
+        for (int s = 0; s < n; s++) {
+            for (int c = 0; c < nc; c++) {
+                if (nfa.succStart(s, c) == nfa.succEnd(s, c)) {
+                    continue;
+                }
+                long[] row = new long[words];
+                for (int e = nfa.succStart(s, c); e < nfa.succEnd(s, c); e++) {
+                    int q = nfa.succ(e);
+                    row[q >>> 6] |= 1L << q;
+                }
+                nfa.closure(row, stack);
+                long[] old = shared.putIfAbsent(new BitSetKey(row), row);
+                if (old != null) {
+                    row = old;
+                } else {
+                    total += words;
+                    if (total > MAX_TABLE_WORDS) {
+                        return null;
+                    }
+                }
+                rows[s * nc + c] = row;
+            }
+        }
+        return rows;
+    }
+
+    public NfaIndex<S, A> getNfa() {
+        return nfa;
+    }
+
+    /**
+     * Retorna um novo conjunto com o fecho ε do estado inicial.
+     *
+     * @return o conjunto inicial da simulação
+     */
+    public long[] initSet() {
+        return initSet.clone();
+    }
+
+    /**
+     * Calcula em `to` o conjunto de estados alcançados a partir de `from`
+     * pelo símbolo de número `x`. Símbolos fora do alfabeto (negativos) levam
+     * ao conjunto vazio.
+     *
+     * @param from conjunto de estados de origem
+     * @param x número do símbolo
+     * @param to conjunto de destino, sobrescrito
+     * @param stack área de trabalho com pelo menos `numStates()` posições,
+     * usada apenas quando a tabela de sucessores não foi construída
+     */
+    public void step(long[] from, int x, long[] to, int[] stack) {
+        if (x < 0) {
+            Arrays.fill(to, 0L);
+            return;
+        }
+        int c = nfa.classOf(x);
+        if (rows == null) {
+            nfa.step(from, c, to, stack);
+            return;
+        }
+        Arrays.fill(to, 0L);
+        for (int w = 0; w < from.length; w++) {
+            long bits = from[w];
+            while (bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long[] row = rows[s * numClasses + c];
+                if (row != null) {
+                    for (int i = 0; i < words; i++) {
+                        to[i] |= row[i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Processa a cadeia `w` a partir do conjunto `set`, que é modificado no
+     * lugar e ao final contém o conjunto de destino.
+     *
+     * @param set conjunto de estados de origem e, ao final, de destino
+     * @param w cadeia representada pelos números dos símbolos
+     */
+    public void run(long[] set, int[] w) {
+        long[] cur = set;
+        long[] next = new long[words];
+        int[] stack = (rows == null) ? new int[nfa.numStates()] : null;
+        for (int i = 0; i < w.length && !NfaIndex.isEmpty(cur); i++) {
+            step(cur, w[i], next, stack);
+            long[] t = cur;
+            cur = next;
+            next = t;
+        }
+        if (cur != set) {
+            System.arraycopy(cur, 0, set, 0, words);
+        }
+    }
+
+    public boolean accept(int[] w) {
+        long[] set = initSet();
+        run(set, w);
+        return nfa.anyFinal(set);
+    }
+
+    public boolean accept(List<A> w) {
+        return accept(encode(w));
+    }
+
+    /**
+     * Função de transição estendida sobre os estados originais. O conjunto de
+     * origem é completado com o seu fecho ε antes do processamento.
+     *
+     * @param from conjunto de estados de origem
+     * @param w cadeia de símbolos
+     * @return conjunto de estados de destino
+     */
+    public Set<S> extTrans(Set<S> from, List<A> w) {
+        long[] set = new long[words];
+        for (S q : from) {
+            int s = nfa.stateId(q);
+            if (s >= 0) {
+                set[s >>> 6] |= 1L << s;
+            }
+        }
+        nfa.closure(set, new int[nfa.numStates()]);
+        run(set, encode(w));
+        return nfa.toStates(set);
+    }
+
+    private int[] encode(List<A> w) {
+        int[] xs = new int[w.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = nfa.symbolId(w.get(i));
+        }
+        return xs;
+    }
+
+    @Override
+    public String toString() {
+        return "BitsetNfa{" + "nfa=" + nfa + ", tabulated=" + (rows != null) + '}';
+    }
+
+}
@@ -0,0 +1,328 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import ifes.flat.SymbolTable;
+import static ifes.data.Pair.p;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Versão "compilada" de um AFD. Os estados e os símbolos do alfabeto são
+ * numerados de forma densa (de `0` até `n - 1`) e a função de transição é
+ * armazenada em um único vetor de inteiros, linha por linha. As colunas da
+ * tabela não são os símbolos, mas as classes de equivalência do alfabeto (veja
+ * `AlphabetPartition`): a transição do estado `i` com o símbolo `a` fica na
+ * posição `i * numClasses + classOf[a]`. Para alfabetos grandes, em que a
+ * maioria dos símbolos se comporta da mesma forma em todos os estados, isso
+ * reduz o tamanho da tabela em ordens de grandeza, mantendo o custo O(1) por
+ * símbolo.
+ *
+ * Transições não definidas no AFD original levam ao estado `DEAD`, que rejeita
+ * qualquer cadeia. O caminho `accept(int[])` não aloca nenhum objeto por
+ * símbolo processado. Os objetos são imutáveis depois de construídos, e podem
+ * ser compartilhados entre várias <em>threads</em>.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <S> tipo dos objetos que representam estados do autômato original
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class CompiledDfa<S, A> {
+
+    /**
+     * Estado "morto", destino de todas as transições não definidas.
+     */
+    public static final int DEAD = -1;
+
+    private final SymbolTable<S> states;
+    private final SymbolTable<A> symbols;
+    private final int[] classOf;
+    private final int[] table;
+    private final boolean[] finals;
+    private final int initState;
+    private final int numClasses;
+
+    /**
+     * Compila o AFD `m`, numerando seus estados e símbolos.
+     *
+     * @param m o AFD que será compilado
+     */
+    public CompiledDfa(Dfa<S, A> m) {
+        this.states = SymbolTable.of(m.getStates());
+        this.symbols = SymbolTable.of(m.getAlphabet());
+        int n = m.getTransFn().size();
+        int[] src = new int[n];
+        int[] sym = new int[n];
+        int[] dst = new int[n];
+        int k = 0;
+        for (Map.Entry<Pair<S, A>, S> tr : m.getTransFn().entrySet()) {
+            int si = stateId(tr.getKey()._1);
+            int x = symbolId(tr.getKey()._2);
+            if (si != DEAD && x >= 0) {
+                src[k] = si;
+                sym[k] = x;
+                dst[k] = stateId(tr.getValue());
+                k += 1;
+            }
+        }
+        this.classOf = AlphabetPartition.refine(symbols.size(), states.size(), k, src, sym, dst);
+        int nc = 0;
+        for (int c : classOf) {
+            nc = Math.max(nc, c + 1);
+        }
+        this.numClasses = nc;
+        this.table = new int[states.size() * numClasses];
+        Arrays.fill(table, DEAD);
+        for (int i = 0; i < k; i++) {
+            table[src[i] * numClasses + classOf[sym[i]]] = dst[i];
+        }
+        this.finals = new boolean[states.size()];
+        for (S s : m.getFinalStates()) {
+            int i = stateId(s);
+            if (i != DEAD) {
+                finals[i] = true;
+            }
+        }
+        this.initState = stateId(m.getInitState());
+    }
+
+    public int getInitState() {
+        return initState;
+    }
+
+    public int numStates() {
+        return states.size();
+    }
+
+    public int numSymbols() {
+        return symbols.size();
+    }
+
+    /**
+     * Número de classes de equivalência do alfabeto, i.e., o número de
+     * colunas da tabela de transição.
+     *
+     * @return o número de classes de símbolos
+     */
+    public int numClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Retorna a classe de equivalência do símbolo de número `x`.
+     *
+     * @param x número do símbolo
+     * @return número da classe de `x`
+     */
+    public int classOf(int x) {
+        return classOf[x];
+    }
+
+    /**
+     * Retorna a partição do alfabeto usada nas colunas da tabela.
+     *
+     * @return a partição do alfabeto em classes de equivalência
+     */
+    public AlphabetPartition<A> getAlphabetPartition() {
+        return new AlphabetPartition<>(symbols, classOf);
+    }
+
+    /**
+     * Retorna o número do estado `s`, ou `DEAD` se `s` não é um estado do
+     * autômato.
+     *
+     * @param s estado do autômato original
+     * @return o número de `s`
+     */
+    public int stateId(S s) {
+        return states.id(s);
+    }
+
+    /**
+     * Retorna o número do símbolo `x`, ou `-1` se `x` não pertence ao alfabeto.
+     *
+     * @param x símbolo do alfabeto original
+     * @return o número de `x`
+     */
+    public int symbolId(A x) {
+        return symbols.id(x);
+    }
+
+    public S state(int i) {
+        return states.get(i);
+    }
+
+    public A symbol(int x) {
+        return symbols.get(x);
+    }
+
+    public List<S> getStates() {
+        return states.values();
+    }
+
+    public List<A> getSymbols() {
+        return symbols.values();
+    }
+
+    public boolean isFinal(int si) {
+        return si != DEAD && finals[si];
+    }
+
+    /**
+     * Função de transição sobre os números de estados e símbolos. Símbolos
+     * fora do alfabeto (negativos) levam ao estado `DEAD`.
+     *
+     * @param si número do estado de origem
+     * @param x número do símbolo
+     * @return número do estado de destino
+     */
+    public int trans(int si, int x) {
+        if (si == DEAD || x < 0) {
+            return DEAD;
+        }
+        return table[si * numClasses + classOf[x]];
+    }
+
+    /**
+     * Função de transição sobre os números de estados e de classes de
+     * símbolos.
+     *
+     * @param si número do estado de origem
+     * @param c número da classe do símbolo
+     * @return número do estado de destino
+     */
+    public int transClass(int si, int c) {
+        if (si == DEAD) {
+            return DEAD;
+        }
+        return table[si * numClasses + c];
+    }
+
+    /**
+     * Função de transição estendida sobre uma cadeia já convertida para
+     * números de símbolos. Para assim que atinge o estado `DEAD`.
+     *
+     * @param si número do estado de origem
+     * @param w cadeia representada pelos números dos símbolos
+     * @return número do estado de destino
+     */
+    public int extTrans(int si, int[] w) {
+        for (int i = 0; i < w.length && si != DEAD; i++) {
+            si = trans(si, w[i]);
+        }
+        return si;
+    }
+
+    public boolean accept(int[] w) {
+        return isFinal(extTrans(initState, w));
+    }
+
+    /**
+     * Aceitação sobre uma cadeia de símbolos originais. Cada símbolo é
+     * convertido para o seu número durante a própria execução, sem construir
+     * vetores intermediários.
+     *
+     * @param w cadeia que será testada
+     * @return `true` se a cadeia é aceita pelo autômato
+     */
+    public boolean accept(List<A> w) {
+        int si = initState;
+        for (int i = 0; i < w.size() && si != DEAD; i++) {
+            si = trans(si, symbolId(w.get(i)));
+        }
+        return isFinal(si);
+    }
+
+    /**
+     * Converte uma cadeia de símbolos originais para os números dos símbolos.
+     *
+     * @param w cadeia de símbolos
+     * @return vetor com os números dos símbolos de `w`
+     */
+    public int[] encode(List<A> w) {
+        int[] xs = new int[w.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = symbolId(w.get(i));
+        }
+        return xs;
+    }
+
+    /**
+     * Converte o autômato compilado de volta para um `Dfa` com os estados e
+     * símbolos originais.
+     *
+     * @return um AFD equivalente a este autômato
+     */
+    public Dfa<S, A> toDfa() {
+        Map<Pair<S, A>, S> transFn = new HashMap<>();
+        for (int si = 0; si < states.size(); si++) {
+            for (int x = 0; x < symbols.size(); x++) {
+                int sj = table[si * numClasses + classOf[x]];
+                if (sj != DEAD) {
+                    transFn.put(p(states.get(si), symbols.get(x)), states.get(sj));
+                }
+            }
+        }
+        Set<S> fs = new HashSet<>();
+        for (int si = 0; si < states.size(); si++) {
+            if (finals[si]) {
+                fs.add(states.get(si));
+            }
+        }
+        return new Dfa<>(new HashSet<>(symbols.values()),
+                new HashSet<>(states.values()), transFn,
+                (initState != DEAD) ? states.get(initState) : null, fs);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledDfa{" + "states=" + states.values() + ", symbols=" + symbols.values()
+                + ", initState=" + initState + '}';
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 29 * hash + Objects.hashCode(this.states);
+        hash = 29 * hash + Objects.hashCode(this.symbols);
+        hash = 29 * hash + Arrays.hashCode(this.classOf);
+        hash = 29 * hash + Arrays.hashCode(this.table);
+        hash = 29 * hash + this.initState;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final CompiledDfa<?, ?> other = (CompiledDfa<?, ?>) obj;
+        if (this.initState != other.initState) {
+            return false;
+        }
+        if (!Objects.equals(this.states, other.states)) {
+            return false;
+        }
+        if (!Objects.equals(this.symbols, other.symbols)) {
+            return false;
+        }
+        if (!Arrays.equals(this.classOf, other.classOf)) {
+            return false;
+        }
+        if (!Arrays.equals(this.finals, other.finals)) {
+            return false;
+        }
+        return Arrays.equals(this.table, other.table);
+    }
+
+}
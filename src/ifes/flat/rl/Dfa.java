@@ -3,6 +3,7 @@ package ifes.flat.rl;
 import ifes.data.Pair;
 import static ifes.data.Pair.p;
 import static ifes.Utils.writeCollTo;
+import ifes.flat.SymbolTable;
 import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.List;
@@ -44,8 +45,8 @@ public class Dfa<S, A> implements Fsa<S, A, S, A> {
             Map<Pair<S, A>, S> transFn,
             S initState,
             Set<S> finalStates) {
-        this.alphabet = Collections.unmodifiableSet(alphabet);
-        this.states = Collections.unmodifiableSet(states);
+        this.alphabet = SymbolTable.unmodifiableSet(alphabet);
+        this.states = SymbolTable.unmodifiableSet(states);
         this.transFn = Collections.unmodifiableMap(transFn);
         this.initState = initState;
         this.finalStates = Collections.unmodifiableSet(finalStates);
@@ -66,6 +67,20 @@ public class Dfa<S, A> implements Fsa<S, A, S, A> {
         return finalStates;
     }
 
+    public S getInitState() {
+        return initState;
+    }
+
+    /**
+     * Retorna o dicionário (não modificável) que codifica a função de
+     * transição do autômato.
+     *
+     * @return o dicionário da função de transição
+     */
+    public Map<Pair<S, A>, S> getTransFn() {
+        return transFn;
+    }
+
     /**
      * Função de transição do AFD. Basicamente é um <em>wrapper</em> em volta do
      * dicionário `transFn` para tornar mais conveniente o uso da função de
@@ -106,6 +121,52 @@ public class Dfa<S, A> implements Fsa<S, A, S, A> {
         return finalStates.contains(sj);
     }
 
+    /**
+     * Interseção deste AFD com `other`, construída sob demanda.
+     *
+     * @param <S2> tipo dos estados do outro AFD
+     * @param other o outro AFD
+     * @return AFD (preguiçoso) que aceita as cadeias aceitas pelos dois
+     */
+    public <S2> LazyProductDfa<S, S2, A> intersection(Dfa<S2, A> other) {
+        return LazyProductDfa.of(this, other, LazyProductDfa.Op.INTERSECTION);
+    }
+
+    /**
+     * União deste AFD com `other`, construída sob demanda.
+     *
+     * @param <S2> tipo dos estados do outro AFD
+     * @param other o outro AFD
+     * @return AFD (preguiçoso) que aceita as cadeias aceitas por algum dos dois
+     */
+    public <S2> LazyProductDfa<S, S2, A> union(Dfa<S2, A> other) {
+        return LazyProductDfa.of(this, other, LazyProductDfa.Op.UNION);
+    }
+
+    /**
+     * Diferença entre este AFD e `other`, construída sob demanda.
+     *
+     * @param <S2> tipo dos estados do outro AFD
+     * @param other o outro AFD
+     * @return AFD (preguiçoso) que aceita as cadeias aceitas por este AFD e
+     * rejeitadas por `other`
+     */
+    public <S2> LazyProductDfa<S, S2, A> difference(Dfa<S2, A> other) {
+        return LazyProductDfa.of(this, other, LazyProductDfa.Op.DIFFERENCE);
+    }
+
+    /**
+     * Diferença simétrica entre este AFD e `other`, construída sob demanda.
+     *
+     * @param <S2> tipo dos estados do outro AFD
+     * @param other o outro AFD
+     * @return AFD (preguiçoso) que aceita as cadeias aceitas por exatamente um
+     * dos dois
+     */
+    public <S2> LazyProductDfa<S, S2, A> symmetricDifference(Dfa<S2, A> other) {
+        return LazyProductDfa.of(this, other, LazyProductDfa.Op.SYMMETRIC_DIFFERENCE);
+    }
+
     @Override
     public String toString() {
         return "DfaConcrete{" + "alphabet=" + alphabet + ", states=" + states
@@ -0,0 +1,249 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimização de AFD pelo algoritmo de Hopcroft (refinamento de partições),
+ * com complexidade O(n·k·log n), onde `n` é o número de estados e `k` o
+ * número de classes de equivalência do alfabeto (veja `AlphabetPartition`).
+ *
+ * O algoritmo trabalha sobre a tabela de um `CompiledDfa`, usando apenas
+ * vetores de inteiros: não há recursão nem conjuntos de objetos por estado, de
+ * modo que AFDs com milhões de estados podem ser minimizados. Estados
+ * inalcançáveis são descartados, estados equivalentes são unidos e os estados
+ * que não levam a nenhum estado final (o "estado morto") são removidos,
+ * juntamente com as transições que chegam até eles.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class DfaMinimizer {
+
+    private DfaMinimizer() {
+    }
+
+    /**
+     * Retorna o AFD mínimo equivalente a `m`. Cada estado do AFD resultante é
+     * representado por um dos estados originais da sua classe de equivalência.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFD que será minimizado
+     * @return um AFD mínimo que reconhece a mesma linguagem que `m`
+     * @throws IllegalArgumentException se o estado inicial de `m` não
+     * pertence ao conjunto de estados de `m`
+     */
+    public static <S, A> Dfa<S, A> minimize(Dfa<S, A> m) {
+        return minimize(new CompiledDfa<>(m));
+    }
+
+    /**
+     * Retorna o AFD mínimo equivalente ao AFD compilado `cm`.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param cm o AFD compilado que será minimizado
+     * @return um AFD mínimo que reconhece a mesma linguagem que `cm`
+     * @throws IllegalArgumentException se o estado inicial de `cm` não
+     * pertence ao conjunto de estados do AFD
+     */
+    public static <S, A> Dfa<S, A> minimize(CompiledDfa<S, A> cm) {
+        if (cm.getInitState() == CompiledDfa.DEAD) {
+            throw new IllegalArgumentException(
+                    "O estado inicial não pertence ao conjunto de estados do AFD.");
+        }
+        int k = cm.numClasses();
+
+        // 1. Estados alcançáveis, renumerados na ordem da busca em largura.
+        //    O estado `sink` (último número) completa as transições ausentes.
+        int[] newId = new int[cm.numStates()];
+        Arrays.fill(newId, -1);
+        int[] order = new int[cm.numStates()];
+        int r = 0;
+        int init = cm.getInitState();
+        newId[init] = r;
+        order[r++] = init;
+        for (int h = 0; h < r; h++) {
+            int si = order[h];
+            for (int x = 0; x < k; x++) {
+                int sj = cm.transClass(si, x);
+                if (sj != CompiledDfa.DEAD && newId[sj] < 0) {
+                    newId[sj] = r;
+                    order[r++] = sj;
+                }
+            }
+        }
+        int sink = r;
+        int n = r + 1;
+        int[] delta = new int[n * k];
+        for (int i = 0; i < r; i++) {
+            for (int x = 0; x < k; x++) {
+                int sj = cm.transClass(order[i], x);
+                delta[i * k + x] = (sj == CompiledDfa.DEAD) ? sink : newId[sj];
+            }
+        }
+        for (int x = 0; x < k; x++) {
+            delta[sink * k + x] = sink;
+        }
+
+        // 2. Transições inversas, por símbolo, em formato CSR.
+        int[] invStart = new int[k * (n + 1) + 1];
+        for (int i = 0; i < n; i++) {
+            for (int x = 0; x < k; x++) {
+                invStart[x * (n + 1) + delta[i * k + x] + 1] += 1;
+            }
+        }
+        for (int j = 1; j < invStart.length; j++) {
+            invStart[j] += invStart[j - 1];
+        }
+        int[] invList = new int[n * k];
+        int[] fill = new int[k * (n + 1)];
+        System.arraycopy(invStart, 0, fill, 0, fill.length);
+        for (int i = 0; i < n; i++) {
+            for (int x = 0; x < k; x++) {
+                int t = x * (n + 1) + delta[i * k + x];
+                invList[fill[t]++] = i;
+            }
+        }
+        fill = null;
+
+        // 3. Partição inicial: estados finais e não finais.
+        int[] elems = new int[n];
+        int[] loc = new int[n];
+        int[] blockOf = new int[n];
+        int[] first = new int[n];
+        int[] end = new int[n];
+        int[] mid = new int[n];
+        int lo = 0;
+        int hi = n;
+        for (int i = 0; i < n; i++) {
+            boolean fin = i < r && cm.isFinal(order[i]);
+            int pos = fin ? lo++ : --hi;
+            elems[pos] = i;
+            loc[i] = pos;
+        }
+        int numBlocks = 0;
+        if (lo > 0) {
+            first[numBlocks] = 0;
+            end[numBlocks] = lo;
+            numBlocks += 1;
+        }
+        if (lo < n) {
+            first[numBlocks] = lo;
+            end[numBlocks] = n;
+            numBlocks += 1;
+        }
+        for (int b = 0; b < numBlocks; b++) {
+            mid[b] = first[b];
+            for (int j = first[b]; j < end[b]; j++) {
+                blockOf[elems[j]] = b;
+            }
+        }
+
+        int[] work = new int[n];
+        boolean[] inWork = new boolean[n];
+        int top = 0;
+        if (numBlocks == 2) {
+            int b = (end[0] - first[0] <= end[1] - first[1]) ? 0 : 1;
+            work[top++] = b;
+            inWork[b] = true;
+        }
+
+        // 4. Refinamento.
+        int[] preds = new int[n];
+        int[] touched = new int[n];
+        while (top > 0) {
+            int c = work[--top];
+            inWork[c] = false;
+            int cLo = first[c];
+            int cHi = end[c];
+            for (int x = 0; x < k; x++) {
+                int np = 0;
+                int base = x * (n + 1);
+                for (int j = cLo; j < cHi; j++) {
+                    int t = elems[j];
+                    for (int e = invStart[base + t]; e < invStart[base + t + 1]; e++) {
+                        preds[np++] = invList[e];
+                    }
+                }
+                int nt = 0;
+                for (int j = 0; j < np; j++) {
+                    int s = preds[j];
+                    int b = blockOf[s];
+                    if (mid[b] == first[b]) {
+                        touched[nt++] = b;
+                    }
+                    int pos = mid[b];
+                    int other = elems[pos];
+                    elems[loc[s]] = other;
+                    loc[other] = loc[s];
+                    elems[pos] = s;
+                    loc[s] = pos;
+                    mid[b] += 1;
+                }
+                for (int j = 0; j < nt; j++) {
+                    int b = touched[j];
+                    if (mid[b] == end[b]) {
+                        mid[b] = first[b];
+                        continue;
+                    }
+                    int nb = numBlocks++;
+                    first[nb] = first[b];
+                    end[nb] = mid[b];
+                    mid[nb] = first[nb];
+                    first[b] = end[nb];
+                    mid[b] = first[b];
+                    for (int e = first[nb]; e < end[nb]; e++) {
+                        blockOf[elems[e]] = nb;
+                    }
+                    if (inWork[b]) {
+                        work[top++] = nb;
+                        inWork[nb] = true;
+                    } else {
+                        int small = (end[nb] - first[nb] <= end[b] - first[b]) ? nb : b;
+                        work[top++] = small;
+                        inWork[small] = true;
+                    }
+                }
+            }
+        }
+
+        // 5. Construção do AFD mínimo, sem o bloco morto (o bloco de `sink`),
+        //    a não ser que ele contenha o estado inicial.
+        int deadBlock = blockOf[sink];
+        int initBlock = blockOf[0];
+        int[] rep = new int[numBlocks];
+        Arrays.fill(rep, -1);
+        Map<Integer, S> reps = new HashMap<>();
+        for (int i = 0; i < r; i++) {
+            int b = blockOf[i];
+            if ((b != deadBlock || b == initBlock) && rep[b] < 0) {
+                rep[b] = i;
+                reps.put(b, cm.state(order[i]));
+            }
+        }
+        Set<A> alphabet = new HashSet<>(cm.getSymbols());
+        Set<S> states = new HashSet<>(reps.values());
+        Set<S> finals = new HashSet<>();
+        Map<Pair<S, A>, S> transFn = new HashMap<>();
+        for (Map.Entry<Integer, S> e : reps.entrySet()) {
+            int i = rep[e.getKey()];
+            if (cm.isFinal(order[i])) {
+                finals.add(e.getValue());
+            }
+            for (int x = 0; x < cm.numSymbols(); x++) {
+                int bj = blockOf[delta[i * k + cm.classOf(x)]];
+                if (bj != deadBlock) {
+                    transFn.put(p(e.getValue(), cm.symbol(x)), reps.get(bj));
+                }
+            }
+        }
+        return new Dfa<>(alphabet, states, transFn, reps.get(initBlock), finals);
+    }
+
+}
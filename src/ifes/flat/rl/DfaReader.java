@@ -37,7 +37,7 @@ public class DfaReader extends FsaReader<String, String> {
             throw new DataFormatException(
                     String.format("Erro na definição da transição: %s", line));
         }
-        return p(p(tr[0], tr[1]), tr[2]);
+        return p(p(state(tr[0]), symbol(tr[1])), state(tr[2]));
     }
     
 }
@@ -3,6 +3,7 @@ package ifes.flat.rl;
 import ifes.data.Pair;
 import static ifes.data.Pair.p;
 import static ifes.Utils.writeCollTo;
+import ifes.flat.SymbolTable;
 import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.List;
@@ -29,6 +30,7 @@ public class Enfa<S,A> implements Fsa<S, A, Set<S>, Optional<A>> {
     private final Map<Pair<S, Optional<A>>, Set<S>> transFn;
     private final S initState;
     private final Set<S> finalStates;
+    private BitsetNfa<S, A> engine;
 
     /**
      * Cria um objeto que representa um AFD.
@@ -45,8 +47,8 @@ public class Enfa<S,A> implements Fsa<S, A, Set<S>, Optional<A>> {
             Map<Pair<S, Optional<A>>, Set<S>> transFn,
             S initState,
             Set<S> finalStates) {
-        this.alphabet = Collections.unmodifiableSet(alphabet);
-        this.states = Collections.unmodifiableSet(states);
+        this.alphabet = SymbolTable.unmodifiableSet(alphabet);
+        this.states = SymbolTable.unmodifiableSet(states);
         this.transFn = Collections.unmodifiableMap(transFn);
         this.initState = initState;
         this.finalStates = Collections.unmodifiableSet(finalStates);
@@ -67,6 +69,20 @@ public class Enfa<S,A> implements Fsa<S, A, Set<S>, Optional<A>> {
         return finalStates;
     }
 
+    public S getInitState() {
+        return initState;
+    }
+
+    /**
+     * Retorna o dicionário (não modificável) que codifica a função de
+     * transição do autômato.
+     *
+     * @return o dicionário da função de transição
+     */
+    public Map<Pair<S, Optional<A>>, Set<S>> getTransFn() {
+        return transFn;
+    }
+
     @Override
     public Set<S> trans(S si, Optional<A> x) {
         Pair<S,Optional<A>> key = p(si, x);
@@ -89,8 +105,7 @@ public class Enfa<S,A> implements Fsa<S, A, Set<S>, Optional<A>> {
      */
     @Override
     public Set<S> extTrans(Set<S> si, List<A> w) {
-        // TODO: Implemente a função de transição estendida para AFD
-        throw new UnsupportedOperationException("Função ainda não implementada.");
+        return engine().extTrans(si, w);
     }
 
     /**
@@ -103,8 +118,31 @@ public class Enfa<S,A> implements Fsa<S, A, Set<S>, Optional<A>> {
      */
     @Override
     public boolean accept(List<A> w) {
-        // TODO: Implemente a função de transição estendida para AFD
-        throw new UnsupportedOperationException("Função ainda não implementada.");
+        return engine().accept(w);
+    }
+
+    /**
+     * Simulador sobre vetores de bits usado por `extTrans` e `accept`,
+     * construído no primeiro uso. Como o autômato é imutável, construções
+     * concorrentes produzem simuladores equivalentes.
+     */
+    private BitsetNfa<S, A> engine() {
+        BitsetNfa<S, A> e = engine;
+        if (e == null) {
+            e = BitsetNfa.of(this);
+            engine = e;
+        }
+        return e;
+    }
+
+    /**
+     * Retorna um AFN sem transições ε equivalente a este autômato. Veja
+     * `EpsilonEliminator`.
+     *
+     * @return um AFN que reconhece a mesma linguagem
+     */
+    public Nfa<S, A> toNfa() {
+        return EpsilonEliminator.eliminate(this);
     }
 
     @Override
@@ -4,7 +4,6 @@ import ifes.flat.DataFormatException;
 import ifes.data.Pair;
 import static ifes.data.Pair.p;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -43,12 +42,12 @@ public class EnfaReader extends FsaReader<Set<String>, Optional<String>> {
         }
         Pair<String, Optional<String>> trigger;
         if (tr[1].trim().equals("_")) {
-            trigger = p(tr[0], Optional.empty());
+            trigger = p(state(tr[0]), Optional.empty());
         } else {
-            trigger = p(tr[0], Optional.of(tr[1]));
+            trigger = p(state(tr[0]), Optional.of(symbol(tr[1])));
         }
         List<String> lsj = Arrays.asList(tr).subList(2, tr.length);
-        Set<String> ssj = new HashSet(lsj);
+        Set<String> ssj = internAll(stateTable, lsj);
         return p(trigger, ssj);
     }
 
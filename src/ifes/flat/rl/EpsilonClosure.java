@@ -0,0 +1,212 @@
+package ifes.flat.rl;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de fechos ε de um AFN-ε, calculada uma única vez. Os ciclos de
+ * transições ε são condensados pelo algoritmo de Tarjan (componentes
+ * fortemente conexas): todos os estados de uma mesma componente têm o mesmo
+ * fecho, que é guardado em um único vetor de bits compartilhado. Como o
+ * algoritmo de Tarjan produz as componentes em ordem topológica reversa, o
+ * fecho de cada componente é calculado com um único "ou" dos fechos das
+ * componentes sucessoras, já prontos.
+ *
+ * A implementação é iterativa, de modo que cadeias longas de transições ε (como
+ * as produzidas pela construção de Thompson) não esgotam a pilha de execução.
+ * Se a tabela ficar grande demais (mais de `MAX_TABLE_WORDS` posições), ela
+ * não é construída e `isTabulated()` retorna `false`; nesse caso, apenas a
+ * condensação fica disponível.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class EpsilonClosure {
+
+    /**
+     * Número máximo de `long`s da tabela de fechos (32 MB).
+     */
+    public static final int MAX_TABLE_WORDS = 1 << 22;
+
+    private final int numStates;
+    private final int words;
+    private final int[] comp;
+    private final int numComps;
+    private final long[][] closures;
+
+    /**
+     * Calcula os fechos ε dos `n` estados cujas transições ε, em formato CSR,
+     * são `eps[e]`, para `e` de `epsStart[s]` até `epsStart[s + 1] - 1`.
+     *
+     * @param n número de estados
+     * @param epsStart início das transições ε de cada estado
+     * @param eps destinos das transições ε
+     */
+    EpsilonClosure(int n, int[] epsStart, int[] eps) {
+        this.numStates = n;
+        this.words = NfaIndex.words(n);
+        this.comp = new int[n];
+        this.numComps = tarjan(n, epsStart, eps, comp);
+        this.closures = buildClosures(n, epsStart, eps);
+    }
+
+    /**
+     * Algoritmo de Tarjan, iterativo. Preenche `comp` com a componente de cada
+     * estado, numeradas em ordem topológica reversa (componentes sem
+     * sucessores primeiro), e retorna o número de componentes.
+     */
+    private static int tarjan(int n, int[] epsStart, int[] eps, int[] comp) {
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] edge = new int[n];
+        Arrays.fill(index, -1);
+        int top = 0;
+        int next = 0;
+        int nc = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = low[root] = next++;
+            edge[root] = epsStart[root];
+            stack[top++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                if (edge[v] < epsStart[v + 1]) {
+                    int w = eps[edge[v]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = next++;
+                        edge[w] = epsStart[w];
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    depth -= 1;
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--top];
+                            onStack[w] = false;
+                            comp[w] = nc;
+                        } while (w != v);
+                        nc += 1;
+                    }
+                    if (depth > 0) {
+                        int u = callStack[depth - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                }
+            }
+        }
+        return nc;
+    }
+
+    private long[][] buildClosures(int n, int[] epsStart, int[] eps) {
+        if ((long) numComps * words > MAX_TABLE_WORDS) {
+            return null;
+        }
+        // Membros de cada componente, em formato CSR.
+        int[] memberStart = new int[numComps + 1];
+        for (int s = 0; s < n; s++) {
+            memberStart[comp[s] + 1] += 1;
+        }
+        for (int c = 0; c < numComps; c++) {
+            memberStart[c + 1] += memberStart[c];
+        }
+        int[] members = new int[n];
+        int[] fill = Arrays.copyOf(memberStart, numComps);
+        for (int s = 0; s < n; s++) {
+            members[fill[comp[s]]++] = s;
+        }
+        long[][] cls = new long[numComps][];
+        for (int c = 0; c < numComps; c++) {
+            long[] bits = new long[words];
+            for (int i = memberStart[c]; i < memberStart[c + 1]; i++) {
+                int s = members[i];
+                bits[s >>> 6] |= 1L << s;
+                for (int e = epsStart[s]; e < epsStart[s + 1]; e++) {
+                    int d = comp[eps[e]];
+                    if (d != c) {
+                        long[] other = cls[d];
+                        for (int w = 0; w < words; w++) {
+                            bits[w] |= other[w];
+                        }
+                    }
+                }
+            }
+            cls[c] = bits;
+        }
+        return cls;
+    }
+
+    public int numStates() {
+        return numStates;
+    }
+
+    /**
+     * Número de componentes fortemente conexas do grafo de transições ε.
+     *
+     * @return o número de componentes
+     */
+    public int numComponents() {
+        return numComps;
+    }
+
+    /**
+     * Componente do estado `s`. Estados na mesma componente têm o mesmo fecho.
+     *
+     * @param s número do estado
+     * @return número da componente de `s`
+     */
+    public int component(int s) {
+        return comp[s];
+    }
+
+    public boolean isTabulated() {
+        return closures != null;
+    }
+
+    /**
+     * Retorna o fecho ε do estado `s`. O vetor é compartilhado por todos os
+     * estados da mesma componente e não deve ser modificado.
+     *
+     * @param s número do estado
+     * @return o fecho ε de `s`
+     */
+    public long[] closureOf(int s) {
+        return closures[comp[s]];
+    }
+
+    /**
+     * Acrescenta ao conjunto `set` o seu fecho ε. Requer `isTabulated()`.
+     *
+     * @param set conjunto de estados, modificado no lugar
+     */
+    public void close(long[] set) {
+        for (int w = 0; w < set.length; w++) {
+            long bits = set[w];
+            while (bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long[] cl = closures[comp[s]];
+                for (int i = 0; i < words; i++) {
+                    set[i] |= cl[i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EpsilonClosure{" + "numStates=" + numStates + ", numComponents="
+                + numComps + ", tabulated=" + isTabulated() + '}';
+    }
+
+}
@@ -0,0 +1,111 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Eliminação das transições ε de um AFN-ε. O AFN resultante tem o mesmo
+ * estado inicial e:
+ *
+ * <ul>
+ * <li>a transição do estado `q` com o símbolo `a` leva aos estados alcançados
+ * com `a` a partir do fecho ε de `q`, i.e., δ'(q,a) = ∪ δ(p,a) para `p` no
+ * fecho ε de `q` (os destinos não são fechados);</li>
+ * <li>o estado `q` é final se o seu fecho ε contém algum estado final.</li>
+ * </ul>
+ *
+ * Apenas os estados alcançáveis a partir do estado inicial no novo AFN são
+ * mantidos: como os destinos não incluem os fechos, os estados que só são
+ * alcançados por transições ε (por exemplo, os estados de junção da
+ * construção de Thompson) desaparecem. Os fechos são obtidos da tabela
+ * `EpsilonClosure` do `NfaIndex`, e as transições são calculadas uma vez por
+ * classe de símbolos.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class EpsilonEliminator {
+
+    private EpsilonEliminator() {
+    }
+
+    /**
+     * Retorna um AFN sem transições ε equivalente a `m`.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFN-ε
+     * @return um AFN que reconhece a mesma linguagem que `m`
+     */
+    public static <S, A> Nfa<S, A> eliminate(Enfa<S, A> m) {
+        NfaIndex<S, A> idx = NfaIndex.of(m);
+        int n = idx.numStates();
+        int nc = idx.numClasses();
+        Set<A> alphabet = new HashSet<>(m.getAlphabet());
+        Set<S> states = new HashSet<>();
+        Set<S> finals = new HashSet<>();
+        Map<Pair<S, A>, Set<S>> transFn = new HashMap<>();
+        int init = idx.getInitState();
+        if (init < 0) {
+            return new Nfa<>(alphabet, states, transFn, m.getInitState(), finals);
+        }
+
+        List<List<A>> members = new ArrayList<>(nc);
+        for (int c = 0; c < nc; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int x = 0; x < idx.numSymbols(); x++) {
+            members.get(idx.classOf(x)).add(idx.symbol(x));
+        }
+
+        int[] stack = new int[n];
+        long[] cl = new long[idx.words()];
+        long[] to = new long[idx.words()];
+        boolean[] seen = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        seen[init] = true;
+        queue[tail++] = init;
+        while (head < tail) {
+            int q = queue[head++];
+            S sq = idx.state(q);
+            states.add(sq);
+            Arrays.fill(cl, 0L);
+            cl[q >>> 6] |= 1L << q;
+            idx.closure(cl, stack);
+            if (idx.anyFinal(cl)) {
+                finals.add(sq);
+            }
+            for (int c = 0; c < nc; c++) {
+                idx.move(cl, c, to);
+                if (NfaIndex.isEmpty(to)) {
+                    continue;
+                }
+                for (int w = 0; w < to.length; w++) {
+                    long bits = to[w];
+                    while (bits != 0) {
+                        int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (!seen[t]) {
+                            seen[t] = true;
+                            queue[tail++] = t;
+                        }
+                    }
+                }
+                Set<S> targets = idx.toStates(to);
+                for (A x : members.get(c)) {
+                    transFn.put(p(sq, x), targets);
+                }
+            }
+        }
+        return new Nfa<>(alphabet, states, transFn, idx.state(init), finals);
+    }
+
+}
@@ -3,6 +3,7 @@ package ifes.flat.rl;
 import ifes.flat.DataFormatException;
 import ifes.data.Pair;
 import static ifes.data.Pair.p;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -10,34 +11,109 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import ifes.flat.Fsa;
+import ifes.flat.SymbolTable;
 
 /**
+ * Base dos leitores de definições de autômatos. Todos os nomes de símbolos, de
+ * estados e de saídas lidos passam pelas tabelas `symbolTable`, `stateTable` e
+ * `outputTable`, de modo que cada nome distinto é representado por um único
+ * objeto `String`, compartilhado por todas as transições que o usam, e recebe
+ * um número denso, na ordem em que aparece na definição.
+ *
+ * O alfabeto e o conjunto de estados do autômato lido são visões das tabelas
+ * (`SymbolTable.asSet`); por isso, `CompiledDfa` e `NfaIndex` reutilizam a
+ * numeração feita aqui (`SymbolTable.of`), em vez de numerar os nomes de novo.
+ * Se o leitor é reutilizado para um segundo autômato, as tabelas já não estão
+ * vazias e os conjuntos são criados normalmente.
  *
  * @author jefferson
  */
 public abstract class FsaReader<S1, A1> {
 
+    protected final SymbolTable<String> symbolTable = new SymbolTable<>();
+    protected final SymbolTable<String> stateTable = new SymbolTable<>();
+    protected final SymbolTable<String> outputTable = new SymbolTable<>();
+
     public abstract Fsa<String, String, S1, A1> read(List<String> lines) throws DataFormatException;
 
+    /**
+     * Retorna o objeto canônico para o símbolo `x`.
+     */
+    protected String symbol(String x) {
+        return symbolTable.canonical(x);
+    }
+
+    /**
+     * Retorna o objeto canônico para o estado `q`.
+     */
+    protected String state(String q) {
+        return stateTable.canonical(q);
+    }
+
+    /**
+     * Internaliza os nomes `xs` em `table`. Se a tabela estava vazia, retorna
+     * uma visão dela, cuja numeração é reutilizada pelas representações
+     * densas do autômato.
+     */
+    protected static Set<String> internNames(SymbolTable<String> table, List<String> xs) {
+        if (table.size() > 0) {
+            return internAll(table, xs);
+        }
+        for (String x : xs) {
+            table.intern(x);
+        }
+        return table.asSet();
+    }
+
+    protected static Set<String> internAll(SymbolTable<String> table, List<String> xs) {
+        var set = new HashSet<String>(2 * xs.size());
+        for (String x : xs) {
+            set.add(table.canonical(x));
+        }
+        return set;
+    }
+
     public Pair<Set<String>, List<String>> readAlphabet(List<String> lines) {
         assert lines.size() > 0;
         var symbols = lines.get(0).split(" ");
-        var alphabet = new HashSet<String>(Arrays.asList(symbols));
+        var alphabet = internNames(symbolTable, Arrays.asList(symbols));
         var rest = lines.subList(1, lines.size());
         return p(alphabet, rest);
     }
 
+    /**
+     * Lê o alfabeto de saída das máquinas de Mealy e de Moore.
+     */
+    protected Pair<Set<String>, List<String>> readAlphabetOut(List<String> lines) {
+        assert lines.size() > 0;
+        var symbols = lines.get(0).split(" ");
+        var alphabet = internAll(outputTable, Arrays.asList(symbols));
+        var rest = lines.subList(1, lines.size());
+        return p(alphabet, rest);
+    }
+
+    /**
+     * Retorna os objetos canônicos para a sequência de saídas `xs`.
+     */
+    protected List<String> outputs(List<String> xs) {
+        var out = new ArrayList<String>(xs.size());
+        for (String x : xs) {
+            out.add(outputTable.canonical(x));
+        }
+        return out;
+    }
+
     public Pair<Set<String>, List<String>> readStates(List<String> lines) {
         assert lines.size() > 0;
         String[] qs = lines.get(0).split(" ");
-        var states = new HashSet<String>(Arrays.asList(qs));
+        var states = internNames(stateTable, Arrays.asList(qs));
         var rest = lines.subList(1, lines.size());
         return p(states, rest);
     }
 
     public Pair<String, List<String>> readInitState(List<String> lines) {
         assert lines.size() > 0 && lines.get(0).trim().length() < 1;
-        var init = lines.get(0).trim();
+        var init = state(lines.get(0).trim());
         var rest = lines.subList(1, lines.size());
         return p(init, rest);
     }
@@ -47,7 +123,7 @@ public abstract class FsaReader<S1, A1> {
         var fs = lines.get(0).split(" ");
         var finalStates = new HashSet<String>();
         if (!fs[0].trim().equals("!!")) {
-            finalStates.addAll(Arrays.asList(fs));
+            finalStates.addAll(internAll(stateTable, Arrays.asList(fs)));
         }
         var rest = lines.subList(1, lines.size());
         return p(finalStates, rest);
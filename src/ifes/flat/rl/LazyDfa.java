@@ -0,0 +1,286 @@
+package ifes.flat.rl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Determinização preguiçosa (construção de subconjuntos sob demanda) de um
+ * AFN ou AFN-ε. Cada estado do AFD é um conjunto de estados do AFN,
+ * representado como vetor de bits, e só é criado na primeira vez em que uma
+ * cadeia o alcança. As transições já calculadas ficam em uma tabela indexada
+ * por estado e classe de símbolo, de modo que, para as entradas usuais, o
+ * custo por símbolo é o de um AFD.
+ *
+ * O número de estados guardados é limitado por `maxStates`. Quando a tabela
+ * enche, ela é esvaziada por completo e reconstruída a partir do estado
+ * corrente. Se a tabela for esvaziada com frequência excessiva (menos de
+ * `maxStates` símbolos processados entre duas limpezas), a cadeia corrente
+ * passa a ser processada por simulação direta dos conjuntos de estados, que
+ * não cria estados novos.
+ *
+ * Os números de estados retornados por `start` e `step` são válidos apenas até
+ * a próxima chamada de `step`, pois uma limpeza da tabela renumera os estados.
+ * Objetos desta classe não são seguros para uso por várias
+ * <em>threads</em>; use uma instância por <em>thread</em>, compartilhando o
+ * mesmo `NfaIndex`.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <S> tipo dos objetos que representam estados do autômato original
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class LazyDfa<S, A> {
+
+    /**
+     * Estado "morto" (conjunto vazio de estados do AFN).
+     */
+    public static final int DEAD = -1;
+
+    /**
+     * Número máximo de estados guardados, se nenhum for indicado.
+     */
+    public static final int DEFAULT_MAX_STATES = 10000;
+
+    private static final int UNKNOWN = -2;
+
+    private final NfaIndex<S, A> nfa;
+    private final int maxStates;
+    private final int numClasses;
+    private final long[] initSet;
+    private final int[] stack;
+
+    private final Map<BitSetKey, Integer> cache;
+    private final List<long[]> sets;
+    private boolean[] finals;
+    private int[] table;
+    private int initState;
+
+    private long sinceFlush;
+    private long flushes;
+    private long fallbacks;
+
+    /**
+     * Menor valor aceito para `maxStates`: depois de uma limpeza, a tabela
+     * precisa guardar o estado inicial e os estados de origem e de destino da
+     * transição que está sendo calculada.
+     */
+    public static final int MIN_MAX_STATES = 3;
+
+    /**
+     * Cria o AFD preguiçoso para o AFN `nfa`, guardando no máximo
+     * `maxStates` estados.
+     *
+     * @param nfa representação densa do AFN
+     * @param maxStates número máximo de estados guardados
+     * @throws IllegalArgumentException se `maxStates` é menor que
+     * `MIN_MAX_STATES`
+     */
+    public LazyDfa(NfaIndex<S, A> nfa, int maxStates) {
+        if (maxStates < MIN_MAX_STATES) {
+            throw new IllegalArgumentException(String.format(
+                    "maxStates deve ser pelo menos %d: %d.", MIN_MAX_STATES, maxStates));
+        }
+        this.nfa = nfa;
+        this.maxStates = maxStates;
+        this.numClasses = Math.max(nfa.numClasses(), 1);
+        this.initSet = nfa.initSet();
+        this.stack = new int[nfa.numStates()];
+        this.cache = new HashMap<>();
+        this.sets = new ArrayList<>();
+        int cap = Math.min(maxStates, 16);
+        this.finals = new boolean[cap];
+        this.table = new int[cap * numClasses];
+        this.initState = intern(initSet.clone());
+        this.sinceFlush = 0;
+        this.flushes = 0;
+        this.fallbacks = 0;
+    }
+
+    public LazyDfa(NfaIndex<S, A> nfa) {
+        this(nfa, DEFAULT_MAX_STATES);
+    }
+
+    public static <S, A> LazyDfa<S, A> of(Nfa<S, A> m) {
+        return new LazyDfa<>(NfaIndex.of(m));
+    }
+
+    public static <S, A> LazyDfa<S, A> of(Enfa<S, A> m) {
+        return new LazyDfa<>(NfaIndex.of(m));
+    }
+
+    private int intern(long[] set) {
+        if (NfaIndex.isEmpty(set)) {
+            return DEAD;
+        }
+        BitSetKey key = new BitSetKey(set);
+        Integer si = cache.get(key);
+        if (si != null) {
+            return si;
+        }
+        int i = sets.size();
+        if (i == finals.length) {
+            int cap = Math.min(2 * finals.length, maxStates);
+            finals = Arrays.copyOf(finals, cap);
+            table = Arrays.copyOf(table, cap * numClasses);
+        }
+        sets.add(set);
+        finals[i] = nfa.anyFinal(set);
+        Arrays.fill(table, i * numClasses, (i + 1) * numClasses, UNKNOWN);
+        cache.put(key, i);
+        return i;
+    }
+
+    private void flush() {
+        cache.clear();
+        sets.clear();
+        flushes += 1;
+        sinceFlush = 0;
+        initState = intern(initSet.clone());
+    }
+
+    public NfaIndex<S, A> getNfa() {
+        return nfa;
+    }
+
+    /**
+     * Estado inicial do AFD: o fecho ε do estado inicial do AFN.
+     *
+     * @return o número do estado inicial
+     */
+    public int start() {
+        return initState;
+    }
+
+    public boolean isFinal(int si) {
+        return si != DEAD && finals[si];
+    }
+
+    /**
+     * Função de transição do AFD. Se a transição ainda não foi calculada, o
+     * conjunto de destino é calculado e, se necessário, criado. Se a tabela
+     * estiver cheia, ela é esvaziada antes disso e o estado `si` é recriado.
+     *
+     * @param si número do estado de origem
+     * @param x número do símbolo
+     * @return número do estado de destino
+     */
+    public int step(int si, int x) {
+        if (si == DEAD || x < 0) {
+            return DEAD;
+        }
+        sinceFlush += 1;
+        int c = nfa.classOf(x);
+        int sj = table[si * numClasses + c];
+        if (sj != UNKNOWN) {
+            return sj;
+        }
+        long[] from = sets.get(si);
+        long[] to = new long[from.length];
+        nfa.step(from, c, to, stack);
+        if (sets.size() >= maxStates && !cache.containsKey(new BitSetKey(to))) {
+            flush();
+            si = intern(from);
+        }
+        sj = intern(to);
+        table[si * numClasses + c] = sj;
+        return sj;
+    }
+
+    /**
+     * Indica se a tabela está sendo esvaziada com frequência excessiva, caso
+     * em que a simulação direta é mais barata.
+     */
+    private boolean thrashing() {
+        return flushes > 0 && sinceFlush < maxStates && sets.size() >= maxStates;
+    }
+
+    /**
+     * Função de aceitação sobre uma cadeia já convertida para números de
+     * símbolos.
+     *
+     * @param w cadeia representada pelos números dos símbolos
+     * @return `true` se a cadeia é aceita pelo autômato
+     */
+    public boolean accept(int[] w) {
+        int si = initState;
+        long f = flushes;
+        for (int i = 0; i < w.length; i++) {
+            if (si == DEAD) {
+                return false;
+            }
+            if (flushes != f && thrashing()) {
+                return simulate(sets.get(si), w, i);
+            }
+            si = step(si, w[i]);
+        }
+        return isFinal(si);
+    }
+
+    public boolean accept(List<A> w) {
+        int[] xs = new int[w.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = nfa.symbolId(w.get(i));
+        }
+        return accept(xs);
+    }
+
+    /**
+     * Simulação direta dos conjuntos de estados a partir da posição `i` de
+     * `w`, usando dois vetores de bits alternados.
+     */
+    private boolean simulate(long[] set, int[] w, int i) {
+        fallbacks += 1;
+        long[] cur = set.clone();
+        long[] next = new long[cur.length];
+        for (; i < w.length; i++) {
+            if (w[i] < 0) {
+                return false;
+            }
+            nfa.step(cur, nfa.classOf(w[i]), next, stack);
+            long[] t = cur;
+            cur = next;
+            next = t;
+            if (NfaIndex.isEmpty(cur)) {
+                return false;
+            }
+        }
+        return nfa.anyFinal(cur);
+    }
+
+    /**
+     * Número de estados guardados no momento.
+     *
+     * @return o número de estados da tabela
+     */
+    public int numStates() {
+        return sets.size();
+    }
+
+    /**
+     * Número de vezes em que a tabela de estados foi esvaziada.
+     *
+     * @return o número de limpezas da tabela
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Número de cadeias que foram processadas (ao menos em parte) por
+     * simulação direta.
+     *
+     * @return o número de simulações diretas
+     */
+    public long getFallbacks() {
+        return fallbacks;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyDfa{" + "numStates=" + sets.size() + ", maxStates="
+                + maxStates + ", flushes=" + flushes + '}';
+    }
+
+}
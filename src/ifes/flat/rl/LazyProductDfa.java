@@ -0,0 +1,367 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import ifes.flat.SymbolTable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Produto de dois AFDs construído sob demanda. Um estado do produto é um par
+ * `(s1, s2)` de estados dos dois autômatos, mas apenas os pares alcançáveis a
+ * partir do par inicial, e efetivamente visitados pelas cadeias processadas,
+ * são criados. Cada par recebe um número na primeira vez em que aparece (a
+ * tabela `memo`) e as transições já calculadas ficam guardadas em uma tabela
+ * indexada por número de estado e classe de símbolo, de modo que o custo de
+ * uma transição já visitada é O(1).
+ *
+ * A operação (`Op`) determina quais pares são finais. Pares que nunca podem
+ * levar a um estado final (por exemplo, `(DEAD, s2)` na interseção) são
+ * representados diretamente por `DEAD` e não são criados.
+ *
+ * O alfabeto do produto é a união dos alfabetos dos dois autômatos; um símbolo
+ * que não pertence ao alfabeto de um deles leva esse lado ao estado morto.
+ * Objetos desta classe não são seguros para uso por várias
+ * <em>threads</em>, pois a tabela cresce durante o uso.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <S1> tipo dos estados do primeiro AFD
+ * @param <S2> tipo dos estados do segundo AFD
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class LazyProductDfa<S1, S2, A> {
+
+    /**
+     * Operação sobre as linguagens dos dois autômatos.
+     */
+    public enum Op {
+        INTERSECTION {
+            @Override
+            boolean accept(boolean a, boolean b) {
+                return a && b;
+            }
+
+            @Override
+            boolean dead(boolean a, boolean b) {
+                return a || b;
+            }
+        },
+        UNION {
+            @Override
+            boolean accept(boolean a, boolean b) {
+                return a || b;
+            }
+
+            @Override
+            boolean dead(boolean a, boolean b) {
+                return a && b;
+            }
+        },
+        DIFFERENCE {
+            @Override
+            boolean accept(boolean a, boolean b) {
+                return a && !b;
+            }
+
+            @Override
+            boolean dead(boolean a, boolean b) {
+                return a;
+            }
+        },
+        SYMMETRIC_DIFFERENCE {
+            @Override
+            boolean accept(boolean a, boolean b) {
+                return a != b;
+            }
+
+            @Override
+            boolean dead(boolean a, boolean b) {
+                return a && b;
+            }
+        };
+
+        abstract boolean accept(boolean a, boolean b);
+
+        /**
+         * Indica se o par de estados, com `a` (resp. `b`) indicando se o
+         * primeiro (resp. segundo) estado é o estado morto, não pode mais
+         * levar a um estado final.
+         */
+        abstract boolean dead(boolean a, boolean b);
+    }
+
+    /**
+     * Estado "morto" do produto.
+     */
+    public static final int DEAD = -1;
+
+    private static final int UNKNOWN = -2;
+
+    private final CompiledDfa<S1, A> left;
+    private final CompiledDfa<S2, A> right;
+    private final Op op;
+
+    private final SymbolTable<A> symbols;
+    private final int[] classOf;
+    private final int numClasses;
+    private final int[] leftSym;
+    private final int[] rightSym;
+
+    private final Map<Long, Integer> memo;
+    private int[] lefts;
+    private int[] rights;
+    private boolean[] finals;
+    private int[] table;
+    private int numStates;
+    private final int initState;
+
+    /**
+     * Cria o produto de `left` e `right` com a operação `op`. Apenas o par
+     * inicial é criado neste momento.
+     *
+     * @param left o primeiro AFD
+     * @param right o segundo AFD
+     * @param op a operação sobre as linguagens
+     */
+    public LazyProductDfa(CompiledDfa<S1, A> left, CompiledDfa<S2, A> right, Op op) {
+        this.left = left;
+        this.right = right;
+        this.op = op;
+        this.symbols = new SymbolTable<>(left.getSymbols());
+        for (A x : right.getSymbols()) {
+            symbols.intern(x);
+        }
+
+        // Classes do produto: pares (classe à esquerda, classe à direita).
+        int n = symbols.size();
+        this.classOf = new int[n];
+        Map<Long, Integer> classes = new HashMap<>();
+        int[] reps = new int[n];
+        for (int x = 0; x < n; x++) {
+            int lx = left.symbolId(symbols.get(x));
+            int rx = right.symbolId(symbols.get(x));
+            int lc = (lx >= 0) ? left.classOf(lx) : -1;
+            int rc = (rx >= 0) ? right.classOf(rx) : -1;
+            long key = ((long) (lc + 1) << 32) | (rc + 1);
+            Integer c = classes.get(key);
+            if (c == null) {
+                c = classes.size();
+                classes.put(key, c);
+                reps[c] = x;
+            }
+            classOf[x] = c;
+        }
+        this.numClasses = classes.size();
+        this.leftSym = new int[numClasses];
+        this.rightSym = new int[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            leftSym[c] = left.symbolId(symbols.get(reps[c]));
+            rightSym[c] = right.symbolId(symbols.get(reps[c]));
+        }
+
+        this.memo = new HashMap<>();
+        int cap = 16;
+        this.lefts = new int[cap];
+        this.rights = new int[cap];
+        this.finals = new boolean[cap];
+        this.table = new int[cap * Math.max(numClasses, 1)];
+        this.numStates = 0;
+        this.initState = state(left.getInitState(), right.getInitState());
+    }
+
+    /**
+     * Cria o produto de `left` e `right` com a operação `op`.
+     *
+     * @param <S1> tipo dos estados do primeiro AFD
+     * @param <S2> tipo dos estados do segundo AFD
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param left o primeiro AFD
+     * @param right o segundo AFD
+     * @param op a operação sobre as linguagens
+     * @return o produto construído sob demanda
+     */
+    public static <S1, S2, A> LazyProductDfa<S1, S2, A> of(Dfa<S1, A> left, Dfa<S2, A> right, Op op) {
+        return new LazyProductDfa<>(new CompiledDfa<>(left), new CompiledDfa<>(right), op);
+    }
+
+    private int state(int a, int b) {
+        if (op.dead(a == CompiledDfa.DEAD, b == CompiledDfa.DEAD)) {
+            return DEAD;
+        }
+        long key = ((long) (a + 1) << 32) | (b + 1);
+        Integer si = memo.get(key);
+        if (si != null) {
+            return si;
+        }
+        if (numStates == lefts.length) {
+            int cap = 2 * lefts.length;
+            lefts = Arrays.copyOf(lefts, cap);
+            rights = Arrays.copyOf(rights, cap);
+            finals = Arrays.copyOf(finals, cap);
+            table = Arrays.copyOf(table, cap * Math.max(numClasses, 1));
+        }
+        int i = numStates++;
+        lefts[i] = a;
+        rights[i] = b;
+        finals[i] = op.accept(left.isFinal(a), right.isFinal(b));
+        Arrays.fill(table, i * numClasses, (i + 1) * numClasses, UNKNOWN);
+        memo.put(key, i);
+        return i;
+    }
+
+    public int getInitState() {
+        return initState;
+    }
+
+    public Op getOp() {
+        return op;
+    }
+
+    /**
+     * Número de estados do produto criados até o momento.
+     *
+     * @return o número de estados materializados
+     */
+    public int numStates() {
+        return numStates;
+    }
+
+    /**
+     * Retorna o número do símbolo `x` no alfabeto do produto, ou `-1` se `x`
+     * não pertence a nenhum dos dois alfabetos.
+     *
+     * @param x símbolo
+     * @return o número de `x`
+     */
+    public int symbolId(A x) {
+        return symbols.id(x);
+    }
+
+    public List<A> getSymbols() {
+        return symbols.values();
+    }
+
+    public boolean isFinal(int si) {
+        return si != DEAD && finals[si];
+    }
+
+    /**
+     * Retorna o par de estados originais do estado `si` do produto. Um lado
+     * no estado morto é representado por `null`.
+     *
+     * @param si número do estado do produto
+     * @return o par de estados originais
+     */
+    public Pair<S1, S2> pair(int si) {
+        S1 a = (lefts[si] != CompiledDfa.DEAD) ? left.state(lefts[si]) : null;
+        S2 b = (rights[si] != CompiledDfa.DEAD) ? right.state(rights[si]) : null;
+        return p(a, b);
+    }
+
+    /**
+     * Função de transição do produto. Se a transição ainda não foi calculada,
+     * o par de destino é calculado (e criado, se necessário) e guardado.
+     *
+     * @param si número do estado de origem
+     * @param x número do símbolo no alfabeto do produto
+     * @return número do estado de destino
+     */
+    public int trans(int si, int x) {
+        if (si == DEAD || x < 0) {
+            return DEAD;
+        }
+        return transClass(si, classOf[x]);
+    }
+
+    private int transClass(int si, int c) {
+        int sj = table[si * numClasses + c];
+        if (sj == UNKNOWN) {
+            sj = state(left.trans(lefts[si], leftSym[c]),
+                    right.trans(rights[si], rightSym[c]));
+            table[si * numClasses + c] = sj;
+        }
+        return sj;
+    }
+
+    public boolean accept(List<A> w) {
+        int si = initState;
+        for (int i = 0; i < w.size() && si != DEAD; i++) {
+            si = trans(si, symbolId(w.get(i)));
+        }
+        return isFinal(si);
+    }
+
+    /**
+     * Cria todos os estados alcançáveis do produto.
+     */
+    private void explore() {
+        for (int si = (initState != DEAD) ? 0 : numStates; si < numStates; si++) {
+            for (int c = 0; c < numClasses; c++) {
+                transClass(si, c);
+            }
+        }
+    }
+
+    /**
+     * Indica se a linguagem do produto é vazia. Os estados são explorados
+     * apenas até que um estado final seja encontrado.
+     *
+     * @return `true` se nenhuma cadeia é aceita pelo produto
+     */
+    public boolean isEmpty() {
+        if (initState == DEAD) {
+            return true;
+        }
+        for (int si = 0; si < numStates; si++) {
+            if (finals[si]) {
+                return false;
+            }
+            for (int c = 0; c < numClasses; c++) {
+                transClass(si, c);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Constrói explicitamente a parte alcançável do produto. Os estados do
+     * AFD resultante são os números dos estados do produto.
+     *
+     * @return um AFD equivalente ao produto
+     */
+    public Dfa<Integer, A> toDfa() {
+        explore();
+        Set<Integer> states = new HashSet<>();
+        Set<Integer> fs = new HashSet<>();
+        Map<Pair<Integer, A>, Integer> transFn = new HashMap<>();
+        for (int si = 0; si < numStates; si++) {
+            states.add(si);
+            if (finals[si]) {
+                fs.add(si);
+            }
+            for (int x = 0; x < symbols.size(); x++) {
+                int sj = table[si * numClasses + classOf[x]];
+                if (sj != DEAD) {
+                    transFn.put(p(si, symbols.get(x)), sj);
+                }
+            }
+        }
+        Integer init = (initState != DEAD) ? initState : null;
+        if (init == null) {
+            init = 0;
+            states.add(init);
+        }
+        return new Dfa<>(new HashSet<>(symbols.values()), states, transFn, init, fs);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyProductDfa{" + "op=" + op + ", numStates=" + numStates
+                + ", numClasses=" + numClasses + '}';
+    }
+
+}
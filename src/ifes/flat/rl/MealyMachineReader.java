@@ -7,7 +7,6 @@ import ifes.data.Pair;
 import static ifes.data.Pair.p;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import ifes.flat.Fsa;
 
 /**
@@ -15,7 +14,7 @@ import ifes.flat.Fsa;
  * @author jefferson
  */
 public class MealyMachineReader extends FsaReader<Pair<String,List<String>>, String> {
-    
+
     /**
      * Recebe a lista de linhas que definem o Autômato de Estados Finito (FSA) e
      * retorna o objeto que representa este autômato. A função `read` espera que
@@ -49,15 +48,11 @@ public class MealyMachineReader extends FsaReader<Pair<String,List<String>>, Str
             throw new DataFormatException(
                     String.format("Erro na definição da transição: %s", line));
         }
-        var trigger = p(tr[0], tr[1]);
-        var sj = tr[2];
-        var output = Arrays.asList(tr).subList(3, tr.length);
+        var trigger = p(state(tr[0]), symbol(tr[1]));
+        var sj = state(tr[2]);
+        var output = outputs(Arrays.asList(tr).subList(3, tr.length));
         var destiny = p(sj, output);
         return p(trigger, destiny);
     }
-
-    private Pair<Set<String>, List<String>> readAlphabetOut(List<String> lines) {
-        return readAlphabet(lines);
-    }
     
 }
@@ -9,7 +9,6 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import ifes.flat.Fsa;
 
 /**
@@ -17,7 +16,7 @@ import ifes.flat.Fsa;
  * @author jefferson
  */
 public class MooreMachineReader extends FsaReader<String, String> {
-    
+
     /**
      * Recebe a lista de linhas que definem o Autômato de Estados Finito (FSA) e
      * retorna o objeto que representa este autômato. A função `read` espera que
@@ -53,21 +52,18 @@ public class MooreMachineReader extends FsaReader<String, String> {
             throw new DataFormatException(
                     String.format("Erro na definição da transição: %s", line));
         }
-        var trigger = p(tr[0], tr[1]);
-        var sj = tr[2];
+        var trigger = p(state(tr[0]), symbol(tr[1]));
+        var sj = state(tr[2]);
         return p(trigger, sj);
     }
     
-    private Pair<Set<String>, List<String>> readAlphabetOut(List<String> lines) {
-        return readAlphabet(lines);
-    }
     
     public Pair<Map<String, List<String>>, List<String>> readOutputFunction(int numStates, List<String> lines) throws DataFormatException {
         var outFn = new HashMap<String, List<String>>();
         for (int i = 0; i < numStates; i++) {
             String[] ts = lines.get(i).split(" ");
-            var state = ts[0];
-            var output = Arrays.asList(ts).subList(1, ts.length);
+            var state = state(ts[0]);
+            var output = outputs(Arrays.asList(ts).subList(1, ts.length));
             outFn.put(state, output);
         }
         var rest = lines.subList(numStates, lines.size());
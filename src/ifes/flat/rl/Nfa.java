@@ -3,6 +3,7 @@ package ifes.flat.rl;
 import ifes.data.Pair;
 import static ifes.data.Pair.p;
 import static ifes.Utils.writeCollTo;
+import ifes.flat.SymbolTable;
 import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +29,7 @@ public class Nfa<S, A> implements Fsa<S, A, Set<S>, A> {
     private final Map<Pair<S, A>, Set<S>> transFn;
     private final S initState;
     private final Set<S> finalStates;
+    private BitsetNfa<S, A> engine;
 
     /**
      * Cria um objeto que representa um AFD.
@@ -44,8 +46,8 @@ public class Nfa<S, A> implements Fsa<S, A, Set<S>, A> {
             Map<Pair<S, A>, Set<S>> transFn,
             S initState,
             Set<S> finalStates) {
-        this.alphabet = Collections.unmodifiableSet(alphabet);
-        this.states = Collections.unmodifiableSet(states);
+        this.alphabet = SymbolTable.unmodifiableSet(alphabet);
+        this.states = SymbolTable.unmodifiableSet(states);
         this.transFn = Collections.unmodifiableMap(transFn);
         this.initState = initState;
         this.finalStates = Collections.unmodifiableSet(finalStates);
@@ -66,6 +68,20 @@ public class Nfa<S, A> implements Fsa<S, A, Set<S>, A> {
         return finalStates;
     }
 
+    public S getInitState() {
+        return initState;
+    }
+
+    /**
+     * Retorna o dicionário (não modificável) que codifica a função de
+     * transição do autômato.
+     *
+     * @return o dicionário da função de transição
+     */
+    public Map<Pair<S, A>, Set<S>> getTransFn() {
+        return transFn;
+    }
+
     @Override
     public Set<S> trans(S si, A x) {
         Pair<S,A> key = p(si, x);
@@ -88,8 +104,7 @@ public class Nfa<S, A> implements Fsa<S, A, Set<S>, A> {
      */
     @Override
     public Set<S> extTrans(Set<S> si, List<A> w) {
-        // TODO: Implemente a função de transição estendida para AFD
-        throw new UnsupportedOperationException("Função ainda não implementada.");
+        return engine().extTrans(si, w);
     }
 
     /**
@@ -102,8 +117,21 @@ public class Nfa<S, A> implements Fsa<S, A, Set<S>, A> {
      */
     @Override
     public boolean accept(List<A> w) {
-        // TODO: Implemente a função de transição estendida para AFD
-        throw new UnsupportedOperationException("Função ainda não implementada.");
+        return engine().accept(w);
+    }
+
+    /**
+     * Simulador sobre vetores de bits usado por `extTrans` e `accept`,
+     * construído no primeiro uso. Como o autômato é imutável, construções
+     * concorrentes produzem simuladores equivalentes.
+     */
+    private BitsetNfa<S, A> engine() {
+        BitsetNfa<S, A> e = engine;
+        if (e == null) {
+            e = BitsetNfa.of(this);
+            engine = e;
+        }
+        return e;
     }
 
     @Override
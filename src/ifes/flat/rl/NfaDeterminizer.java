@@ -0,0 +1,231 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Determinização (construção de subconjuntos) de AFN e AFN-ε em paralelo. Os
+ * estados do AFD são conjuntos de estados do AFN, representados como vetores
+ * de bits, e são explorados em largura, nível a nível: as transições de todos
+ * os estados da fronteira corrente são calculadas em paralelo por um
+ * `ForkJoinPool`, e os conjuntos de destino são identificados por uma tabela
+ * concorrente (`ConcurrentHashMap`) indexada pelos próprios vetores de bits,
+ * de modo que cada conjunto recebe um único número.
+ *
+ * O número de estados criados é limitado por `maxStates`; se o limite é
+ * ultrapassado, a determinização é interrompida com
+ * `IllegalStateException`. O número de estados criados na última
+ * determinização fica disponível em `getStatesCreated()`.
+ *
+ * O conjunto vazio não é representado: as transições que levariam a ele são
+ * omitidas no AFD resultante.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ */
+public class NfaDeterminizer {
+
+    /**
+     * Número máximo de estados do AFD, se nenhum for indicado.
+     */
+    public static final int DEFAULT_MAX_STATES = 1_000_000;
+
+    private static final int DEAD = -1;
+    private static final int GRAIN_SIZE = 64;
+
+    private final int parallelism;
+    private final int maxStates;
+    private int statesCreated;
+
+    /**
+     * Cria um determinizador que usa `parallelism` <em>threads</em> e cria no
+     * máximo `maxStates` estados.
+     *
+     * @param parallelism número de <em>threads</em>
+     * @param maxStates número máximo de estados do AFD
+     */
+    public NfaDeterminizer(int parallelism, int maxStates) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Número de threads inválido: " + parallelism);
+        }
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("Número máximo de estados inválido: " + maxStates);
+        }
+        this.parallelism = parallelism;
+        this.maxStates = maxStates;
+        this.statesCreated = 0;
+    }
+
+    public NfaDeterminizer() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Número de estados (subconjuntos) criados na última determinização.
+     *
+     * @return o número de estados criados
+     */
+    public int getStatesCreated() {
+        return statesCreated;
+    }
+
+    public <S, A> Dfa<Integer, A> determinize(Nfa<S, A> m) {
+        return determinize(NfaIndex.of(m));
+    }
+
+    public <S, A> Dfa<Integer, A> determinize(Enfa<S, A> m) {
+        return determinize(NfaIndex.of(m));
+    }
+
+    /**
+     * Estado da determinização compartilhado pelas tarefas de um nível.
+     */
+    private static final class Level {
+
+        final NfaIndex<?, ?> nfa;
+        final int maxStates;
+        final Map<BitSetKey, Integer> ids;
+        final AtomicInteger counter;
+        final ConcurrentLinkedQueue<BitSetKey> created;
+        volatile boolean overflow;
+        long[][] frontier;
+        int[][] rows;
+
+        Level(NfaIndex<?, ?> nfa, int maxStates) {
+            this.nfa = nfa;
+            this.maxStates = maxStates;
+            this.ids = new ConcurrentHashMap<>();
+            this.counter = new AtomicInteger();
+            this.created = new ConcurrentLinkedQueue<>();
+        }
+
+        int intern(long[] set) {
+            if (NfaIndex.isEmpty(set)) {
+                return DEAD;
+            }
+            return ids.computeIfAbsent(new BitSetKey(set), k -> {
+                int id = counter.getAndIncrement();
+                if (id >= maxStates) {
+                    overflow = true;
+                    return DEAD;
+                }
+                created.add(k);
+                return id;
+            });
+        }
+    }
+
+    /**
+     * Calcula as transições dos estados `lo` até `hi - 1` da fronteira.
+     */
+    private static final class StepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Level lv;
+        private final int lo;
+        private final int hi;
+
+        StepTask(Level lv, int lo, int hi) {
+            this.lv = lv;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN_SIZE) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new StepTask(lv, lo, mid), new StepTask(lv, mid, hi));
+                return;
+            }
+            NfaIndex<?, ?> nfa = lv.nfa;
+            int nc = nfa.numClasses();
+            int[] stack = new int[nfa.numStates()];
+            for (int i = lo; i < hi && !lv.overflow; i++) {
+                int[] row = new int[nc];
+                for (int c = 0; c < nc; c++) {
+                    long[] to = new long[nfa.words()];
+                    nfa.step(lv.frontier[i], c, to, stack);
+                    row[c] = lv.intern(to);
+                }
+                lv.rows[i] = row;
+            }
+        }
+    }
+
+    /**
+     * Determiniza o AFN representado por `nfa`. Os estados do AFD resultante
+     * são numerados a partir de `0` (o estado inicial), em ordem de criação.
+     *
+     * @param <S> tipo dos objetos que representam estados do AFN
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param nfa representação densa do AFN
+     * @return um AFD que reconhece a mesma linguagem
+     * @throws IllegalStateException se o número de estados ultrapassar
+     * `maxStates`
+     */
+    public <S, A> Dfa<Integer, A> determinize(NfaIndex<S, A> nfa) {
+        Level lv = new Level(nfa, maxStates);
+        List<long[]> sets = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        int init = lv.intern(nfa.initSet());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (!lv.created.isEmpty()) {
+                // Os novos estados do nível anterior, ordenados pelo número.
+                int base = sets.size();
+                long[][] frontier = new long[lv.created.size()][];
+                for (BitSetKey k = lv.created.poll(); k != null; k = lv.created.poll()) {
+                    frontier[lv.ids.get(k) - base] = k.bits;
+                }
+                sets.addAll(Arrays.asList(frontier));
+                lv.frontier = frontier;
+                lv.rows = new int[frontier.length][];
+                pool.invoke(new StepTask(lv, 0, frontier.length));
+                if (lv.overflow) {
+                    throw new IllegalStateException(String.format(
+                            "Limite de %d estados excedido na determinização.", maxStates));
+                }
+                rows.addAll(Arrays.asList(lv.rows));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        statesCreated = sets.size();
+
+        Set<Integer> states = new HashSet<>();
+        Set<Integer> finals = new HashSet<>();
+        Map<Pair<Integer, A>, Integer> transFn = new HashMap<>();
+        for (int si = 0; si < sets.size(); si++) {
+            states.add(si);
+            if (nfa.anyFinal(sets.get(si))) {
+                finals.add(si);
+            }
+            int[] row = rows.get(si);
+            for (int x = 0; x < nfa.numSymbols(); x++) {
+                int sj = row[nfa.classOf(x)];
+                if (sj != DEAD) {
+                    transFn.put(p(si, nfa.symbol(x)), sj);
+                }
+            }
+        }
+        if (init == DEAD) {
+            init = 0;
+            states.add(init);
+        }
+        return new Dfa<>(new HashSet<>(nfa.getSymbols()), states, transFn, init, finals);
+    }
+
+}
@@ -0,0 +1,441 @@
+package ifes.flat.rl;
+
+import ifes.data.Pair;
+import static ifes.data.Pair.p;
+import ifes.flat.SymbolTable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Representação densa de um AFN ou AFN-ε, usada pelos algoritmos de simulação
+ * e de determinização. Estados e símbolos são numerados de forma densa, os
+ * símbolos são agrupados em classes de equivalência (veja
+ * `AlphabetPartition`) e as transições ficam em vetores de inteiros no formato
+ * CSR: os sucessores do estado `s` pela classe `c` são `succ(e)`, para `e` de
+ * `succStart(s, c)` até `succEnd(s, c) - 1`. As transições ε são guardadas da
+ * mesma forma, por estado.
+ *
+ * Conjuntos de estados são representados como vetores de `long` com
+ * `words()` posições (um bit por estado). Os objetos são imutáveis depois de
+ * construídos, e podem ser compartilhados entre várias <em>threads</em>.
+ *
+ * @author Jefferson Andrade <jefferson.andrade@ifes.edu.br>
+ * @param <S> tipo dos objetos que representam estados do autômato original
+ * @param <A> tipo dos objetos que representam símbolos do alfabeto
+ */
+public class NfaIndex<S, A> {
+
+    private final SymbolTable<S> states;
+    private final SymbolTable<A> symbols;
+    private final int[] classOf;
+    private final int numClasses;
+    private final int[] succStart;
+    private final int[] succ;
+    private final int[] epsStart;
+    private final int[] eps;
+    private final EpsilonClosure epsClosure;
+    private final boolean[] finals;
+    private final long[] finalBits;
+    private final int initState;
+
+    private NfaIndex(Set<S> stateSet, Set<A> alphabet, S init, Set<S> finalStates,
+            Map<Pair<S, A>, Set<S>> trans, Map<S, Set<S>> epsTrans) {
+        this.states = SymbolTable.of(stateSet);
+        this.symbols = SymbolTable.of(alphabet);
+        int n = states.size();
+
+        // Classes de símbolos, de acordo com os conjuntos de destino.
+        SymbolTable<Set<S>> targets = new SymbolTable<>();
+        int nt = trans.size();
+        int[] src = new int[nt];
+        int[] sym = new int[nt];
+        int[] dst = new int[nt];
+        int k = 0;
+        for (Map.Entry<Pair<S, A>, Set<S>> tr : trans.entrySet()) {
+            int si = states.id(tr.getKey()._1);
+            int x = symbols.id(tr.getKey()._2);
+            if (si >= 0 && x >= 0 && !tr.getValue().isEmpty()) {
+                src[k] = si;
+                sym[k] = x;
+                dst[k] = targets.intern(tr.getValue());
+                k += 1;
+            }
+        }
+        this.classOf = AlphabetPartition.refine(symbols.size(), n, k, src, sym, dst);
+        int nc = 0;
+        for (int c : classOf) {
+            nc = Math.max(nc, c + 1);
+        }
+        this.numClasses = nc;
+
+        // Sucessores por (estado, classe). Símbolos da mesma classe têm o
+        // mesmo conjunto de destino, então basta a primeira transição.
+        int[] setOf = new int[n * nc];
+        Arrays.fill(setOf, -1);
+        this.succStart = new int[n * nc + 1];
+        for (int i = 0; i < k; i++) {
+            int j = src[i] * nc + classOf[sym[i]];
+            if (setOf[j] < 0) {
+                setOf[j] = dst[i];
+                for (S q : targets.get(dst[i])) {
+                    if (states.id(q) >= 0) {
+                        succStart[j + 1] += 1;
+                    }
+                }
+            }
+        }
+        for (int j = 0; j < n * nc; j++) {
+            succStart[j + 1] += succStart[j];
+        }
+        this.succ = new int[succStart[n * nc]];
+        for (int j = 0; j < n * nc; j++) {
+            if (setOf[j] >= 0) {
+                int e = succStart[j];
+                for (S q : targets.get(setOf[j])) {
+                    int sq = states.id(q);
+                    if (sq >= 0) {
+                        succ[e++] = sq;
+                    }
+                }
+            }
+        }
+
+        // Transições ε.
+        this.epsStart = new int[n + 1];
+        for (Map.Entry<S, Set<S>> tr : epsTrans.entrySet()) {
+            int si = states.id(tr.getKey());
+            if (si >= 0) {
+                for (S q : tr.getValue()) {
+                    if (states.id(q) >= 0) {
+                        epsStart[si + 1] += 1;
+                    }
+                }
+            }
+        }
+        for (int s = 0; s < n; s++) {
+            epsStart[s + 1] += epsStart[s];
+        }
+        this.eps = new int[epsStart[n]];
+        int[] fill = Arrays.copyOf(epsStart, n);
+        for (Map.Entry<S, Set<S>> tr : epsTrans.entrySet()) {
+            int si = states.id(tr.getKey());
+            if (si >= 0) {
+                for (S q : tr.getValue()) {
+                    int sq = states.id(q);
+                    if (sq >= 0) {
+                        eps[fill[si]++] = sq;
+                    }
+                }
+            }
+        }
+
+        this.epsClosure = (eps.length > 0) ? new EpsilonClosure(n, epsStart, eps) : null;
+
+        this.finals = new boolean[n];
+        this.finalBits = new long[words(n)];
+        for (S q : finalStates) {
+            int i = states.id(q);
+            if (i >= 0) {
+                finals[i] = true;
+                finalBits[i >>> 6] |= 1L << i;
+            }
+        }
+        this.initState = states.id(init);
+    }
+
+    /**
+     * Constrói a representação densa do AFN `m`.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFN
+     * @return a representação densa de `m`
+     */
+    public static <S, A> NfaIndex<S, A> of(Nfa<S, A> m) {
+        return new NfaIndex<>(m.getStates(), m.getAlphabet(), m.getInitState(),
+                m.getFinalStates(), m.getTransFn(), Map.of());
+    }
+
+    /**
+     * Constrói a representação densa do AFN-ε `m`, separando as transições ε
+     * das transições por símbolos.
+     *
+     * @param <S> tipo dos objetos que representam estados do autômato
+     * @param <A> tipo dos objetos que representam símbolos do alfabeto
+     * @param m o AFN-ε
+     * @return a representação densa de `m`
+     */
+    public static <S, A> NfaIndex<S, A> of(Enfa<S, A> m) {
+        Map<Pair<S, A>, Set<S>> trans = new HashMap<>();
+        Map<S, Set<S>> epsTrans = new HashMap<>();
+        for (Map.Entry<Pair<S, Optional<A>>, Set<S>> tr : m.getTransFn().entrySet()) {
+            Optional<A> x = tr.getKey()._2;
+            if (x.isPresent()) {
+                trans.put(p(tr.getKey()._1, x.get()), tr.getValue());
+            } else {
+                epsTrans.put(tr.getKey()._1, tr.getValue());
+            }
+        }
+        return new NfaIndex<>(m.getStates(), m.getAlphabet(), m.getInitState(),
+                m.getFinalStates(), trans, epsTrans);
+    }
+
+    /**
+     * Número de posições (`long`) de um conjunto de `n` estados.
+     */
+    static int words(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    public int numStates() {
+        return states.size();
+    }
+
+    public int numSymbols() {
+        return symbols.size();
+    }
+
+    public int numClasses() {
+        return numClasses;
+    }
+
+    /**
+     * Número de posições dos vetores que representam conjuntos de estados.
+     *
+     * @return o tamanho de um conjunto de estados em `long`s
+     */
+    public int words() {
+        return words(states.size());
+    }
+
+    public int classOf(int x) {
+        return classOf[x];
+    }
+
+    /**
+     * Retorna o número do símbolo `x`, ou `-1` se `x` não pertence ao alfabeto.
+     *
+     * @param x símbolo do alfabeto
+     * @return o número de `x`
+     */
+    public int symbolId(A x) {
+        return symbols.id(x);
+    }
+
+    public int stateId(S s) {
+        return states.id(s);
+    }
+
+    public S state(int i) {
+        return states.get(i);
+    }
+
+    public A symbol(int x) {
+        return symbols.get(x);
+    }
+
+    public List<S> getStates() {
+        return states.values();
+    }
+
+    public List<A> getSymbols() {
+        return symbols.values();
+    }
+
+    /**
+     * Número do estado inicial, ou `-1` se o estado inicial não pertence ao
+     * conjunto de estados do autômato.
+     *
+     * @return o número do estado inicial
+     */
+    public int getInitState() {
+        return initState;
+    }
+
+    public boolean isFinal(int s) {
+        return finals[s];
+    }
+
+    public boolean hasEpsilon() {
+        return eps.length > 0;
+    }
+
+    public int succStart(int s, int c) {
+        return succStart[s * numClasses + c];
+    }
+
+    public int succEnd(int s, int c) {
+        return succStart[s * numClasses + c + 1];
+    }
+
+    public int succ(int e) {
+        return succ[e];
+    }
+
+    public int epsStart(int s) {
+        return epsStart[s];
+    }
+
+    public int epsEnd(int s) {
+        return epsStart[s + 1];
+    }
+
+    public int eps(int e) {
+        return eps[e];
+    }
+
+    /**
+     * Tabela de fechos ε do autômato, ou `null` se não há transições ε.
+     *
+     * @return a tabela de fechos ε
+     */
+    public EpsilonClosure getEpsilonClosure() {
+        return epsClosure;
+    }
+
+    /**
+     * Acrescenta ao conjunto `set` o seu fecho ε, usando a tabela de fechos
+     * quando ela está disponível. O vetor `stack` é usado como área de
+     * trabalho e deve ter pelo menos `numStates()` posições.
+     *
+     * @param set conjunto de estados, modificado no lugar
+     * @param stack área de trabalho
+     */
+    public void closure(long[] set, int[] stack) {
+        if (epsClosure == null) {
+            return;
+        }
+        if (epsClosure.isTabulated()) {
+            epsClosure.close(set);
+            return;
+        }
+        int top = 0;
+        for (int w = 0; w < set.length; w++) {
+            long bits = set[w];
+            while (bits != 0) {
+                stack[top++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        while (top > 0) {
+            int s = stack[--top];
+            for (int e = epsStart[s]; e < epsStart[s + 1]; e++) {
+                int q = eps[e];
+                long bit = 1L << q;
+                if ((set[q >>> 6] & bit) == 0) {
+                    set[q >>> 6] |= bit;
+                    stack[top++] = q;
+                }
+            }
+        }
+    }
+
+    /**
+     * Conjunto inicial da simulação: o estado inicial e o seu fecho ε.
+     *
+     * @return um novo conjunto com os estados iniciais
+     */
+    public long[] initSet() {
+        long[] set = new long[words()];
+        if (initState >= 0) {
+            set[initState >>> 6] |= 1L << initState;
+            closure(set, new int[numStates()]);
+        }
+        return set;
+    }
+
+    /**
+     * Calcula em `to` o conjunto de estados alcançados a partir de `from`
+     * pelos símbolos da classe `c`, incluindo o fecho ε. Nenhum objeto é
+     * alocado.
+     *
+     * @param from conjunto de estados de origem
+     * @param c número da classe do símbolo
+     * @param to conjunto de destino, sobrescrito
+     * @param stack área de trabalho com pelo menos `numStates()` posições
+     */
+    public void step(long[] from, int c, long[] to, int[] stack) {
+        move(from, c, to);
+        closure(to, stack);
+    }
+
+    /**
+     * Calcula em `to` o conjunto de estados alcançados a partir de `from`
+     * por uma transição com os símbolos da classe `c`, sem o fecho ε.
+     *
+     * @param from conjunto de estados de origem
+     * @param c número da classe do símbolo
+     * @param to conjunto de destino, sobrescrito
+     */
+    public void move(long[] from, int c, long[] to) {
+        Arrays.fill(to, 0L);
+        for (int w = 0; w < from.length; w++) {
+            long bits = from[w];
+            while (bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int j = s * numClasses + c;
+                for (int e = succStart[j]; e < succStart[j + 1]; e++) {
+                    int q = succ[e];
+                    to[q >>> 6] |= 1L << q;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica se o conjunto `set` contém algum estado final.
+     *
+     * @param set conjunto de estados
+     * @return `true` se algum estado de `set` é final
+     */
+    public boolean anyFinal(long[] set) {
+        for (int w = 0; w < set.length; w++) {
+            if ((set[w] & finalBits[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isEmpty(long[] set) {
+        for (long bits : set) {
+            if (bits != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converte um conjunto representado como vetor de bits para um conjunto
+     * com os estados originais.
+     *
+     * @param set conjunto de estados
+     * @return o conjunto dos estados originais correspondentes
+     */
+    public Set<S> toStates(long[] set) {
+        Set<S> qs = new HashSet<>();
+        for (int w = 0; w < set.length; w++) {
+            long bits = set[w];
+            while (bits != 0) {
+                qs.add(states.get((w << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return qs;
+    }
+
+    @Override
+    public String toString() {
+        return "NfaIndex{" + "numStates=" + numStates() + ", numSymbols="
+                + numSymbols() + ", numClasses=" + numClasses
+                + ", initState=" + initState + '}';
+    }
+
+}
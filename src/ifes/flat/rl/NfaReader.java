@@ -5,7 +5,6 @@ import ifes.flat.Fsa;
 import ifes.data.Pair;
 import static ifes.data.Pair.p;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -41,8 +40,8 @@ public class NfaReader extends FsaReader<Set<String>, String> {
                     String.format("Erro na definição da transição: %s", line));
         }
         List<String> lsj = Arrays.asList(tr).subList(2, tr.length);
-        Set<String> ssj = new HashSet(lsj);
-        return p(p(tr[0], tr[1]), ssj);
+        Set<String> ssj = internAll(stateTable, lsj);
+        return p(p(state(tr[0]), symbol(tr[1])), ssj);
     }
     
 }
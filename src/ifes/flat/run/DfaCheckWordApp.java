@@ -3,14 +3,20 @@ package ifes.flat.run;
 import ifes.cli.OptParser;
 import ifes.flat.DataFormatException;
 import ifes.flat.FsaFactory;
+import ifes.flat.MappedWordScanner;
+import ifes.flat.rl.CompiledDfa;
 import ifes.flat.rl.Dfa;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  *
@@ -21,6 +27,9 @@ public class DfaCheckWordApp extends FlatApp {
     public static final String MODULE_NAME = "DfaCheckWord";
     public static final String MODULE_VERSION = "0.1.1";
 
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int GRAIN_SIZE = 1 << 10;
+
     public DfaCheckWordApp() {
         super();
     }
@@ -57,12 +66,19 @@ public class DfaCheckWordApp extends FlatApp {
             Dfa<String, String> m;
             try {
                 m = readDfa(cfg);
-                String t = cfg.reader.readLine();
-                while (t != null) {
-                    List<String> w = Arrays.asList(t.split(" "));
-                    String ans = m.accept(w) ? "ACEITA" : "REJEITA";
-                    cfg.writer.println(ans);
-                    t = cfg.reader.readLine();
+                CompiledDfa<String, String> cm = new CompiledDfa<>(m);
+                if (cfg.words != null) {
+                    checkMappedWords(cm, cfg);
+                } else if (cfg.parallel > 1) {
+                    checkWordsParallel(cm, cfg);
+                } else {
+                    String t = cfg.reader.readLine();
+                    while (t != null) {
+                        List<String> w = Arrays.asList(t.split(" "));
+                        String ans = cm.accept(w) ? "ACEITA" : "REJEITA";
+                        cfg.writer.println(ans);
+                        t = cfg.reader.readLine();
+                    }
                 }
             } catch (IOException ex) {
                 System.err.printf("Erro de leitura de dados: %s\n", ex.getMessage());
@@ -75,6 +91,110 @@ public class DfaCheckWordApp extends FlatApp {
         }
     }
 
+    /**
+     * Verifica as cadeias do arquivo `cfg.words`, mapeado em memória. Os
+     * números dos símbolos lidos pelo `MappedWordScanner` são os mesmos do
+     * `CompiledDfa`, de modo que o autômato é executado diretamente sobre os
+     * bytes do arquivo, sem criar objetos por cadeia ou por símbolo.
+     *
+     * @throws IOException
+     */
+    private void checkMappedWords(CompiledDfa<String, String> cm, FlatConfig cfg) throws IOException {
+        try (var sc = new MappedWordScanner(cfg.words.toPath(), cm.getSymbols())) {
+            while (sc.nextWord()) {
+                int si = cm.getInitState();
+                int x = sc.nextSymbol();
+                while (x != MappedWordScanner.END_OF_WORD) {
+                    si = cm.trans(si, x);
+                    if (si == CompiledDfa.DEAD) {
+                        sc.skipWord();
+                        break;
+                    }
+                    x = sc.nextSymbol();
+                }
+                cfg.writer.println(cm.isFinal(si) ? "ACEITA" : "REJEITA");
+            }
+        }
+    }
+
+    /**
+     * Verifica as cadeias da entrada em lotes de `BLOCK_SIZE` linhas, usando
+     * um <em>pool</em> fork-join com `cfg.parallel` <em>threads</em>. Enquanto
+     * um lote é verificado, o próximo lote já está sendo lido, e as respostas
+     * são escritas na mesma ordem das cadeias na entrada. O `CompiledDfa` é
+     * imutável e é compartilhado por todas as <em>threads</em>.
+     *
+     * @throws IOException
+     */
+    private void checkWordsParallel(CompiledDfa<String, String> cm, FlatConfig cfg) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(cfg.parallel);
+        try {
+            String[] block = readBlock(cfg.reader);
+            while (block.length > 0) {
+                boolean[] answers = new boolean[block.length];
+                ForkJoinTask<Void> task = pool.submit(new CheckTask(cm, block, answers, 0, block.length));
+                String[] next = readBlock(cfg.reader);
+                task.join();
+                for (boolean ans : answers) {
+                    cfg.writer.println(ans ? "ACEITA" : "REJEITA");
+                }
+                block = next;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String[] readBlock(BufferedReader reader) throws IOException {
+        List<String> lines = new ArrayList<>(BLOCK_SIZE);
+        String t = reader.readLine();
+        while (t != null) {
+            lines.add(t);
+            if (lines.size() == BLOCK_SIZE) {
+                break;
+            }
+            t = reader.readLine();
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    /**
+     * Tarefa que verifica as cadeias `lines[lo..hi)`, dividindo o intervalo ao
+     * meio enquanto ele for maior que `GRAIN_SIZE`.
+     */
+    private static class CheckTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledDfa<String, String> cm;
+        private final String[] lines;
+        private final boolean[] answers;
+        private final int lo;
+        private final int hi;
+
+        CheckTask(CompiledDfa<String, String> cm, String[] lines, boolean[] answers, int lo, int hi) {
+            this.cm = cm;
+            this.lines = lines;
+            this.answers = answers;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= GRAIN_SIZE) {
+                for (int i = lo; i < hi; i++) {
+                    answers[i] = cm.accept(Arrays.asList(lines[i].split(" ")));
+                }
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new CheckTask(cm, lines, answers, lo, mid),
+                        new CheckTask(cm, lines, answers, mid, hi));
+            }
+        }
+
+    }
+
     /**
      * Cria um objeto `Dfa` lendo a definição do AFD à partir da entrada do
      * programa. Lê as linhas da entrada do programa até encontrar uma linha
@@ -110,8 +230,10 @@ public class DfaCheckWordApp extends FlatApp {
                         OPT_HELP,
                         OPT_VERSION,
                         OPT_DEBUG,
+                        OPT_PARALLEL,
                         OPT_INPUT,
-                        OPT_OUTPUT
+                        OPT_OUTPUT,
+                        OPT_WORDS
                 );
             }
         };
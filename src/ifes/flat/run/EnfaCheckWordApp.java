@@ -16,7 +16,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -63,13 +62,7 @@ public class EnfaCheckWordApp extends FlatApp {
         } else {
             try {
                 Enfa<String, String> m = readEnfa(cfg);
-                String t = cfg.reader.readLine();
-                while (t != null) {
-                    List<String> w = Arrays.asList(t.split(" "));
-                    String ans = m.accept(w) ? "ACEITA" : "REJEITA";
-                    cfg.writer.println(ans);
-                    t = cfg.reader.readLine();
-                }
+                checkNfaWords(cfg, m.toNfa());
             } catch (IOException ex) {
                 System.err.printf("Erro de leitura de dados: %s\n", ex.getMessage());
                 System.exit(IO_ERROR);
@@ -118,7 +111,8 @@ public class EnfaCheckWordApp extends FlatApp {
                         OPT_VERSION,
                         OPT_DEBUG,
                         OPT_INPUT,
-                        OPT_OUTPUT
+                        OPT_OUTPUT,
+                        OPT_WORDS
                 );
             }
         };
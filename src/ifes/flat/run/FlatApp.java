@@ -2,6 +2,13 @@ package ifes.flat.run;
 
 import ifes.cli.FileOpt;
 import ifes.cli.Flag;
+import ifes.cli.IntOpt;
+import static ifes.data.Result.failure;
+import static ifes.data.Result.success;
+import ifes.flat.MappedWordScanner;
+import ifes.flat.rl.BitParallelNfa;
+import ifes.flat.rl.LazyDfa;
+import ifes.flat.rl.Nfa;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -9,6 +16,10 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -100,4 +111,113 @@ public abstract class FlatApp extends App<FlatConfig> {
         }
     };
 
+    /**
+     *
+     */
+    public static final FileOpt<FlatConfig> OPT_WORDS
+            = new FileOpt<FlatConfig>("w", "words", "FILE") {
+        {
+            description = "Lê as cadeias do arquivo FILE, mapeado em memória,"
+                    + " em vez de lê-las da entrada após a linha `---`.";
+            action = (FlatConfig cfg, File f) -> {
+                cfg.words = f;
+                return cfg;
+            };
+        }
+    };
+
+    /**
+     *
+     */
+    public static final IntOpt<FlatConfig> OPT_PARALLEL
+            = new IntOpt<FlatConfig>("p", "parallel", "N") {
+        {
+            description = "Processa a entrada usando N threads"
+                    + " (-p N ou --parallel=N). O padrão depende do módulo.";
+            action = (FlatConfig cfg, Integer x) -> {
+                cfg.parallel = x;
+                return cfg;
+            };
+            validate = (Integer x) -> {
+                if (x != null && x > 0) {
+                    return success(x);
+                } else {
+                    return failure("Número de threads inválido: " + x);
+                }
+            };
+        }
+    };
+
+    /**
+     * Verifica as cadeias do arquivo `cfg.words`, lido por um
+     * `MappedWordScanner`, e escreve `ACEITA` ou `REJEITA` para cada uma. Os
+     * símbolos de cada cadeia são os próprios objetos de `symbols`, de modo
+     * que nenhuma `String` é criada por símbolo. Cadeias com símbolos fora do
+     * alfabeto são rejeitadas sem consultar o autômato.
+     *
+     * @param cfg configuração do módulo
+     * @param symbols símbolos do alfabeto do autômato
+     * @param accept função de aceitação do autômato
+     * @throws IOException
+     */
+    protected static void checkMappedWords(FlatConfig cfg, List<String> symbols,
+            Predicate<List<String>> accept) throws IOException {
+        List<String> w = new ArrayList<>();
+        try (var sc = new MappedWordScanner(cfg.words.toPath(), symbols)) {
+            while (sc.nextWord()) {
+                w.clear();
+                boolean known = true;
+                int x = sc.nextSymbol();
+                while (known && x != MappedWordScanner.END_OF_WORD) {
+                    if (x == MappedWordScanner.UNKNOWN) {
+                        known = false;
+                        sc.skipWord();
+                    } else {
+                        w.add(symbols.get(x));
+                        x = sc.nextSymbol();
+                    }
+                }
+                boolean ans = known && accept.test(w);
+                cfg.writer.println(ans ? "ACEITA" : "REJEITA");
+            }
+        }
+    }
+
+    /**
+     * Verifica as cadeias da entrada com o AFN `m` e escreve `ACEITA` ou
+     * `REJEITA` para cada uma. Se o AFN cabe em uma simulação bit-paralela
+     * (`BitParallelNfa`), ela é usada; caso contrário, as cadeias são
+     * verificadas por um `LazyDfa`. As cadeias são lidas do arquivo
+     * `cfg.words`, se houver, ou das linhas restantes de `cfg.reader`.
+     *
+     * @param cfg configuração do módulo
+     * @param m o AFN
+     * @throws IOException
+     */
+    protected static void checkNfaWords(FlatConfig cfg, Nfa<String, String> m)
+            throws IOException {
+        List<String> symbols;
+        Predicate<List<String>> accept;
+        var bp = BitParallelNfa.compile(m);
+        if (bp.isPresent()) {
+            symbols = bp.get().getNfa().getSymbols();
+            accept = bp.get()::accept;
+        } else {
+            LazyDfa<String, String> lm = LazyDfa.of(m);
+            symbols = lm.getNfa().getSymbols();
+            accept = lm::accept;
+        }
+        if (cfg.words != null) {
+            checkMappedWords(cfg, symbols, accept);
+        } else {
+            String t = cfg.reader.readLine();
+            while (t != null) {
+                List<String> w = Arrays.asList(t.split(" "));
+                String ans = accept.test(w) ? "ACEITA" : "REJEITA";
+                cfg.writer.println(ans);
+                t = cfg.reader.readLine();
+            }
+        }
+    }
+
 }
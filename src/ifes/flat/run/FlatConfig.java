@@ -2,6 +2,7 @@ package ifes.flat.run;
 
 import ifes.cli.Config;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.PrintWriter;
 import java.util.Objects;
 
@@ -17,6 +18,9 @@ public class FlatConfig extends Config {
     public BufferedReader reader;
     public PrintWriter writer;
     public String command;
+    public Integer parallel;
+    public File words;
+    public Integer maxStates;
     
     public FlatConfig(Boolean debug, Boolean showUsage, 
             Boolean showVersion, BufferedReader reader, 
@@ -27,10 +31,16 @@ public class FlatConfig extends Config {
         this.reader = reader;
         this.writer = writer;
         this.command = command;
+        this.parallel = 1;
+        this.words = null;
+        this.maxStates = null;
     }
     
     public FlatConfig(FlatConfig c) {
         this(c.debug, c.showHelp, c.showVersion, c.reader, c.writer, c.command);
+        this.parallel = c.parallel;
+        this.words = c.words;
+        this.maxStates = c.maxStates;
     }
 
     @Override
@@ -42,6 +52,9 @@ public class FlatConfig extends Config {
         hash = 59 * hash + Objects.hashCode(this.reader);
         hash = 59 * hash + Objects.hashCode(this.writer);
         hash = 59 * hash + Objects.hashCode(this.command);
+        hash = 59 * hash + Objects.hashCode(this.parallel);
+        hash = 59 * hash + Objects.hashCode(this.words);
+        hash = 59 * hash + Objects.hashCode(this.maxStates);
         return hash;
     }
 
@@ -75,6 +88,15 @@ public class FlatConfig extends Config {
         if (!Objects.equals(this.writer, other.writer)) {
             return false;
         }
+        if (!Objects.equals(this.parallel, other.parallel)) {
+            return false;
+        }
+        if (!Objects.equals(this.words, other.words)) {
+            return false;
+        }
+        if (!Objects.equals(this.maxStates, other.maxStates)) {
+            return false;
+        }
         return true;
     }
 
@@ -83,7 +105,9 @@ public class FlatConfig extends Config {
         return "FlatConfig{" 
                 + "debug=" + debug + ", showHelp=" + showHelp 
                 + ", showVersion=" + showVersion + ", reader=" + reader 
-                + ", writer=" + writer + ", command=" + command + '}';
+                + ", writer=" + writer + ", command=" + command 
+                + ", parallel=" + parallel + ", words=" + words
+                + ", maxStates=" + maxStates + '}';
     }
     
 }
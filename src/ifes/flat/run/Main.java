@@ -16,7 +16,9 @@ public class Main {
     
     public static final Map<String, Supplier<App>> apps = Map.ofEntries(
             entry("dfa", () -> new DfaCheckWordApp()),
+            entry("min", () -> new DfaMinimizeApp()),
             entry("nfa", () -> new NfaCheckWordApp()),
+            entry("det", () -> new NfaDeterminizeApp()),
             entry("eps", () -> new EnfaCheckWordApp()),
             entry("m2m", () -> new MealyMooreApp()),
             entry("cfg", () -> new SimplifyCfgApp())
@@ -48,7 +50,9 @@ public class Main {
         System.out.println("Execute de given command with the options provided.");
         System.out.println("Commands:");
         System.out.println("dfa -- Test if an DFA accepts a given word.");
+        System.out.println("min -- Minimize a DFA.");
         System.out.println("nfa -- Test if an NFA accepts a given word.");
+        System.out.println("det -- Convert an NFA or NFAɛ to a DFA.");
         System.out.println("eps -- Test if an NFAɛ accepts a given word.");
         System.out.println("m2m -- Convert between Mealy <-> Moore machines.");
         System.out.println("cfg -- Simplfy a context free grammar.");
@@ -11,7 +11,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -58,13 +57,7 @@ public class NfaCheckWordApp extends FlatApp {
         } else {
             try {
                 Nfa<String, String> m = readNfa(cfg);
-                String t = cfg.reader.readLine();
-                while (t != null) {
-                    List<String> w = Arrays.asList(t.split(" "));
-                    String ans = m.accept(w) ? "ACEITA" : "REJEITA";
-                    cfg.writer.println(ans);
-                    t = cfg.reader.readLine();
-                }
+                checkNfaWords(cfg, m);
             } catch (IOException ex) {
                 System.err.printf("Erro de leitura de dados: %s\n", ex.getMessage());
                 System.exit(IO_ERROR);
@@ -113,7 +106,8 @@ public class NfaCheckWordApp extends FlatApp {
                         OPT_VERSION,
                         OPT_DEBUG,
                         OPT_INPUT,
-                        OPT_OUTPUT
+                        OPT_OUTPUT,
+                        OPT_WORDS
                 );
             }
         };
@@ -0,0 +1,150 @@
+package ifes.flat.run;
+
+import ifes.cli.IntOpt;
+import ifes.cli.OptParser;
+import static ifes.data.Result.failure;
+import static ifes.data.Result.success;
+import ifes.flat.DataFormatException;
+import ifes.flat.FsaFactory;
+import ifes.flat.rl.Dfa;
+import ifes.flat.rl.NfaDeterminizer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ *
+ * @author jefferson
+ */
+public class NfaDeterminizeApp extends FlatApp {
+
+    public static final String MODULE_NAME = "NfaDeterminize";
+    public static final String MODULE_VERSION = "0.1.1";
+
+    public NfaDeterminizeApp() {
+        super();
+    }
+
+    @Override
+    public String moduleName() {
+        return MODULE_NAME;
+    }
+
+    @Override
+    public FlatConfig defaultConfig() {
+        var cfg = new FlatConfig(
+                false,
+                false,
+                false,
+                new BufferedReader(new InputStreamReader(System.in)),
+                new PrintWriter(new OutputStreamWriter(System.out)),
+                "none"
+        );
+        cfg.parallel = Runtime.getRuntime().availableProcessors();
+        cfg.maxStates = NfaDeterminizer.DEFAULT_MAX_STATES;
+        return cfg;
+    }
+
+    @Override
+    public void run(FlatConfig cfg) {
+        if (cfg.showHelp) {
+            var op = argParser();
+            op.writeHelpInfo(cfg.writer);
+            cfg.writer.flush();
+        } else if (cfg.showVersion) {
+            var op = argParser();
+            op.writeProgramInfo(cfg.writer);
+            cfg.writer.flush();
+        } else {
+            try {
+                var det = new NfaDeterminizer(cfg.parallel, cfg.maxStates);
+                Dfa<Integer, String> m = determinize(det, cfg);
+                if (cfg.debug) {
+                    System.err.printf("Estados criados: %d\n", det.getStatesCreated());
+                }
+                m.writeTo(cfg.writer);
+            } catch (IOException ex) {
+                System.err.printf("Erro de leitura de dados: %s\n", ex.getMessage());
+                System.exit(IO_ERROR);
+            } catch (DataFormatException ex) {
+                System.err.printf("Erro de leitura de dados: %s\n", ex.getMessage());
+                System.exit(DATA_ERROR);
+            } catch (IllegalStateException ex) {
+                System.err.printf("Erro na determinização: %s\n", ex.getMessage());
+                System.exit(DATA_ERROR);
+            }
+            cfg.writer.flush();
+        }
+    }
+
+    /**
+     * Lê a definição de um AFN ou de um AFN-ε da entrada do programa, até o
+     * final da entrada ou até encontrar uma linha contendo apenas `---`, e
+     * retorna o AFD equivalente. O tipo do autômato é determinado pela
+     * primeira linha da definição (`nfa` ou `nfae`).
+     *
+     * @return o AFD equivalente ao autômato lido
+     * @throws IOException
+     * @throws DataFormatException
+     */
+    private Dfa<Integer, String> determinize(NfaDeterminizer det, FlatConfig cfg)
+            throws IOException, DataFormatException {
+        StringBuilder sb = new StringBuilder();
+        String t = cfg.reader.readLine();
+        while (t != null && !t.trim().equals("---")) {
+            sb.append(t).append("\n");
+            t = cfg.reader.readLine();
+        }
+        var factory = new FsaFactory();
+        String def = sb.toString();
+        if (def.startsWith("nfae\n")) {
+            return det.determinize(factory.makeEnfaFromString(def));
+        } else {
+            return det.determinize(factory.makeNfaFromString(def));
+        }
+    }
+
+    public static final IntOpt<FlatConfig> OPT_MAX_STATES
+            = new IntOpt<FlatConfig>("m", "max-states", "N") {
+        {
+            description = "Interrompe a determinização se o AFD tiver mais"
+                    + " de N estados (-m N ou --max-states=N).";
+            action = (FlatConfig cfg, Integer x) -> {
+                cfg.maxStates = x;
+                return cfg;
+            };
+            validate = (Integer x) -> {
+                if (x != null && x > 0) {
+                    return success(x);
+                } else {
+                    return failure("Número máximo de estados inválido: " + x);
+                }
+            };
+        }
+    };
+
+    @Override
+    public OptParser<FlatConfig> argParser() {
+        var parser = new OptParser<FlatConfig>() {
+            {
+                programName = NfaDeterminizeApp.this.qualifiedModuleName();
+                programVersion = NfaDeterminizeApp.MODULE_VERSION;
+                usageMessage = "Usage: java -jar Flat.jar det [options]";
+                optList = List.of(
+                        OPT_HELP,
+                        OPT_VERSION,
+                        OPT_DEBUG,
+                        OPT_PARALLEL,
+                        OPT_MAX_STATES,
+                        OPT_INPUT,
+                        OPT_OUTPUT
+                );
+            }
+        };
+        return parser;
+    }
+
+}